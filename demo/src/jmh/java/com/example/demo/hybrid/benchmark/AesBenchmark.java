@@ -0,0 +1,57 @@
+package com.example.demo.hybrid.benchmark;
+
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AES encryption and decryption through {@link EncryptionUtil} across payload sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AesBenchmark {
+
+    @Param({"16", "256", "4096", "65536"})
+    private int payloadSize;
+
+    private SecretKey key;
+
+    private String payload;
+
+    private byte[] envelope;
+
+    private byte[] legacyCiphertext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        key = BenchmarkKeys.newAesKey();
+        payload = BenchmarkKeys.payload(payloadSize);
+        envelope = EncryptionUtil.encryptDataWithAES(payload, key);
+
+        Cipher ecb = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        ecb.init(Cipher.ENCRYPT_MODE, key);
+        legacyCiphertext = ecb.doFinal(payload.getBytes());
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return EncryptionUtil.encryptDataWithAES(payload, key);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return EncryptionUtil.decryptDataWithAES(envelope, key);
+    }
+
+    @Benchmark
+    public byte[] decryptLegacy() {
+        return EncryptionUtil.decryptDataWithAES(legacyCiphertext, key);
+    }
+}
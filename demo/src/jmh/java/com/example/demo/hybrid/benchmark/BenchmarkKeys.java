@@ -0,0 +1,55 @@
+package com.example.demo.hybrid.benchmark;
+
+import com.example.demo.hybrid.until.encryptions.KeyPairGeneratorUtil;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.util.Base64;
+
+/**
+ * Key material shared by the benchmarks, generated once per JVM so key generation does not leak into
+ * the measured operations.
+ */
+final class BenchmarkKeys {
+
+    static final KeyPair SERVER_KEY_PAIR;
+
+    static final String PUBLIC_KEY_BASE64;
+
+    static final String PRIVATE_KEY_BASE64;
+
+    static final String BLIND_INDEX_SECRET = Base64.getEncoder()
+            .encodeToString("benchmark-blind-index-secret-32b".getBytes());
+
+    static {
+        try {
+            SERVER_KEY_PAIR = KeyPairGeneratorUtil.generateKeyRSA();
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        PUBLIC_KEY_BASE64 = Base64.getEncoder().encodeToString(SERVER_KEY_PAIR.getPublic().getEncoded());
+        PRIVATE_KEY_BASE64 = Base64.getEncoder().encodeToString(SERVER_KEY_PAIR.getPrivate().getEncoded());
+    }
+
+    private BenchmarkKeys() {
+    }
+
+    static SecretKey newAesKey() {
+        try {
+            return new KeyPairGeneratorUtil().generateAESKey();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Builds a printable payload of the requested size.
+     */
+    static String payload(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            builder.append((char) ('0' + i % 10));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.hybrid.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the benchmarks once per thread count with the GC profiler, writing one JSON result file per run.
+ * <p>
+ * System properties: {@code jmh.threads} (comma separated, default {@code 1,4,8}),
+ * {@code jmh.includes} (benchmark regex, default all) and {@code jmh.results} (output directory).
+ */
+public class CryptoBenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String[] threadCounts = System.getProperty("jmh.threads", "1,4,8").split(",");
+        String includes = System.getProperty("jmh.includes", CryptoBenchmarkRunner.class.getPackageName() + ".*");
+        File resultDir = new File(System.getProperty("jmh.results", "build/results/jmh"));
+        resultDir.mkdirs();
+
+        for (String threadCount : threadCounts) {
+            int threads = Integer.parseInt(threadCount.trim());
+            Options options = new OptionsBuilder()
+                    .include(includes)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "results-" + threads + "-threads.json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.hybrid.benchmark;
+
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.encryptions.BlindIndexer;
+import com.example.demo.hybrid.until.encryptions.DataKeyCache;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.helper.EncryptionHelper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.SecretKey;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The crypto sequence of saving and reading one transaction in {@code TransactionServiceImpl},
+ * without the database: five RSA decryptions of the request, a fresh AES key wrapped with RSA,
+ * two AES encrypted legs with their blind indexes, and the reverse path on read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HybridEnvelopeBenchmark {
+
+    private PublicKey publicKey;
+
+    private PrivateKey privateKey;
+
+    private BlindIndexer blindIndexer;
+
+    private String encryptedTransactionId;
+
+    private String encryptedSourceAccount;
+
+    private String encryptedDestinationAccount;
+
+    private String encryptedAmount;
+
+    private String encryptedTime;
+
+    private byte[] wrappedKey;
+
+    private byte[] encryptedAccount;
+
+    private byte[] wrappedSessionKey;
+
+    private byte[] encryptedPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        publicKey = BenchmarkKeys.SERVER_KEY_PAIR.getPublic();
+        privateKey = BenchmarkKeys.SERVER_KEY_PAIR.getPrivate();
+        blindIndexer = new BlindIndexer(BenchmarkKeys.BLIND_INDEX_SECRET);
+
+        encryptedTransactionId = EncryptionUtil.encryptDataWithRSA("TX-0000000001", publicKey);
+        encryptedSourceAccount = EncryptionUtil.encryptDataWithRSA("0011223344", publicKey);
+        encryptedDestinationAccount = EncryptionUtil.encryptDataWithRSA("5566778899", publicKey);
+        encryptedAmount = EncryptionUtil.encryptDataWithRSA("150000", publicKey);
+        encryptedTime = EncryptionUtil.encryptDataWithRSA("2024-07-01", publicKey);
+
+        SecretKey aesKey = BenchmarkKeys.newAesKey();
+        wrappedKey = EncryptionUtil.encryptAESKeyWithRSA(aesKey, publicKey);
+        encryptedAccount = EncryptionUtil.encryptDataWithAES("0011223344", aesKey);
+        DataKeyCache.put(wrappedKey, aesKey);
+
+        SecretKey sessionKey = BenchmarkKeys.newAesKey();
+        wrappedSessionKey = EncryptionUtil.encryptAESKeyWithRSA(sessionKey, publicKey);
+        encryptedPayload = EncryptionUtil.encryptDataWithAES("{\"transactionId\":\"TX-0000000001\","
+                + "\"sourceAccount\":\"0011223344\",\"destinationAccount\":\"5566778899\","
+                + "\"amount\":150000,\"time\":\"2024-07-01\"}", sessionKey);
+    }
+
+    @Benchmark
+    public void save(Blackhole blackhole) {
+        String transactionId = EncryptionUtil.decryptDataWithRSA(encryptedTransactionId, privateKey);
+        String sourceAccount = EncryptionUtil.decryptDataWithRSA(encryptedSourceAccount, privateKey);
+        String destinationAccount = EncryptionUtil.decryptDataWithRSA(encryptedDestinationAccount, privateKey);
+        blackhole.consume(Long.parseLong(EncryptionUtil.decryptDataWithRSA(encryptedAmount, privateKey)));
+        blackhole.consume(EncryptionUtil.decryptDataWithRSA(encryptedTime, privateKey));
+
+        SecretKey aesKey = EncryptionHelper.generateAESKey();
+        blackhole.consume(EncryptionHelper.encryptAESKeyWithRSA(aesKey, publicKey));
+        blackhole.consume(EncryptionHelper.encryptWithAES(sourceAccount, aesKey));
+        blackhole.consume(EncryptionHelper.encryptWithAES(destinationAccount, aesKey));
+
+        blackhole.consume(blindIndexer.index(EncryptionConstant.BLIND_INDEX_TRANSACTION_ID, transactionId));
+        blackhole.consume(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, sourceAccount));
+        blackhole.consume(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, destinationAccount));
+    }
+
+    /**
+     * The envelope format: one RSA unwrap of the session key and one AES-GCM decryption of all fields.
+     * JSON parsing is left out, it is small next to the RSA cost.
+     */
+    @Benchmark
+    public void saveEnvelope(Blackhole blackhole) {
+        SecretKey sessionKey = EncryptionUtil.decryptAESKeyWithRSA(wrappedSessionKey, privateKey);
+        blackhole.consume(EncryptionUtil.decryptDataWithAES(encryptedPayload, sessionKey));
+
+        SecretKey aesKey = EncryptionHelper.generateAESKey();
+        blackhole.consume(EncryptionHelper.encryptAESKeyWithRSA(aesKey, publicKey));
+        blackhole.consume(EncryptionHelper.encryptWithAES("0011223344", aesKey));
+        blackhole.consume(EncryptionHelper.encryptWithAES("5566778899", aesKey));
+
+        blackhole.consume(blindIndexer.index(EncryptionConstant.BLIND_INDEX_TRANSACTION_ID, "TX-0000000001"));
+        blackhole.consume(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, "0011223344"));
+        blackhole.consume(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, "5566778899"));
+    }
+
+    @Benchmark
+    public byte[] read() {
+        SecretKey aesKey = EncryptionUtil.decryptAESKeyWithRSA(wrappedKey, privateKey);
+        return EncryptionUtil.decryptDataWithAES(encryptedAccount, aesKey);
+    }
+
+    @Benchmark
+    public byte[] readCached() {
+        SecretKey aesKey = DataKeyCache.unwrap(wrappedKey, privateKey);
+        return EncryptionUtil.decryptDataWithAES(encryptedAccount, aesKey);
+    }
+}
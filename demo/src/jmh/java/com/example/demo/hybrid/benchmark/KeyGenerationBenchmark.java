@@ -0,0 +1,33 @@
+package com.example.demo.hybrid.benchmark;
+
+import com.example.demo.hybrid.until.encryptions.KeyPairGeneratorUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of RSA key pairs for user registration and of per-transaction AES keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyGenerationBenchmark {
+
+    private final KeyPairGeneratorUtil keyPairGeneratorUtil = new KeyPairGeneratorUtil();
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public KeyPair generateRsaKeyPair() throws Exception {
+        return KeyPairGeneratorUtil.generateKeyRSA();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SecretKey generateAesKey() throws Exception {
+        return keyPairGeneratorUtil.generateAESKey();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.hybrid.benchmark;
+
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.encryptions.PublicKeyCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of Base64 encoded RSA keys, as done for every request that carries a public key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyParsingBenchmark {
+
+    @Benchmark
+    public PublicKey parsePublicKeyCached() throws Exception {
+        return EncryptionUtil.loadPublicKeyFromBase64(BenchmarkKeys.PUBLIC_KEY_BASE64);
+    }
+
+    @Benchmark
+    public PublicKey parsePublicKeyUncached() throws Exception {
+        byte[] decoded = Base64.getDecoder().decode(BenchmarkKeys.PUBLIC_KEY_BASE64);
+        return PublicKeyCache.rsaKeyFactory().generatePublic(new X509EncodedKeySpec(decoded));
+    }
+
+    @Benchmark
+    public PrivateKey parsePrivateKey() throws Exception {
+        return EncryptionUtil.loadPrivateKeyFromBase64(BenchmarkKeys.PRIVATE_KEY_BASE64);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.hybrid.benchmark;
+
+import com.example.demo.hybrid.until.constant.RegexConstant;
+import com.example.demo.hybrid.until.log.Masker;
+import com.example.demo.hybrid.until.log.MaskingPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Masking of the three transaction fields logged for every saved transaction: the previous
+ * {@code String.replaceAll} implementation against the lookup table {@link Masker}.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MaskingBenchmark {
+
+    private final MaskingPolicy policy = MaskingPolicy.keepLast(4, '?');
+
+    private String transactionId;
+
+    private String sourceAccount;
+
+    private String destinationAccount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactionId = "TXN-2024-000123456";
+        sourceAccount = "0123456789012";
+        destinationAccount = "9876543210987";
+    }
+
+    @Benchmark
+    public void replaceAll(Blackhole blackhole) {
+        blackhole.consume(transactionId.replaceAll(RegexConstant.REGEX_DOT, RegexConstant.MASK_CHAR));
+        blackhole.consume(sourceAccount.replaceAll(RegexConstant.REGEX_DOT, RegexConstant.MASK_CHAR));
+        blackhole.consume(destinationAccount.replaceAll(RegexConstant.REGEX_DOT, RegexConstant.MASK_CHAR));
+    }
+
+    @Benchmark
+    public void lookupTable(Blackhole blackhole) {
+        blackhole.consume(Masker.mask(transactionId, policy));
+        blackhole.consume(Masker.mask(sourceAccount, policy));
+        blackhole.consume(Masker.mask(destinationAccount, policy));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.hybrid.benchmark;
+
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a burst of simulated requests on a Tomcat-sized platform thread pool versus one virtual
+ * thread per request. Each request blocks for a simulated JDBC round trip and then does one RSA decryption;
+ * in virtual mode the RSA work is bounded to one permit per core, like {@code CryptoExecutor}.
+ * <p>
+ * The {@code virtual} executor needs Java 21: {@code ./gradlew jmh -PjavaVersion=21 -PjmhIncludes=RequestExecution}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestExecutionBenchmark {
+
+    private static final int REQUESTS_PER_BURST = 1000;
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String executorType;
+
+    @Param({"5"})
+    private int blockingMillis;
+
+    private ExecutorService executor;
+
+    private Semaphore cryptoPermits;
+
+    private PrivateKey privateKey;
+
+    private String encryptedAccount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        privateKey = BenchmarkKeys.SERVER_KEY_PAIR.getPrivate();
+        encryptedAccount = EncryptionUtil.encryptDataWithRSA("0011223344", BenchmarkKeys.SERVER_KEY_PAIR.getPublic());
+        cryptoPermits = new Semaphore(Runtime.getRuntime().availableProcessors());
+
+        if ("virtual".equals(executorType)) {
+            // Gọi qua reflection để benchmark vẫn biên dịch được với toolchain Java 17
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } else {
+            executor = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS_PER_BURST)
+    public int burst() throws Exception {
+        List<Future<String>> responses = new ArrayList<>(REQUESTS_PER_BURST);
+        for (int i = 0; i < REQUESTS_PER_BURST; i++) {
+            responses.add(executor.submit(this::handleRequest));
+        }
+        int completed = 0;
+        for (Future<String> response : responses) {
+            if (response.get() != null) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    private String handleRequest() throws InterruptedException {
+        Thread.sleep(blockingMillis);
+
+        boolean bounded = "virtual".equals(executorType);
+        if (bounded) {
+            cryptoPermits.acquire();
+        }
+        try {
+            return EncryptionUtil.decryptDataWithRSA(encryptedAccount, privateKey);
+        } finally {
+            if (bounded) {
+                cryptoPermits.release();
+            }
+        }
+    }
+}
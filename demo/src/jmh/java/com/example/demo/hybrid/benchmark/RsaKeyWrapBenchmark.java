@@ -0,0 +1,54 @@
+package com.example.demo.hybrid.benchmark;
+
+import com.example.demo.hybrid.until.encryptions.DataKeyCache;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RSA wrapping and unwrapping of AES data keys, with and without the unwrapped key cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RsaKeyWrapBenchmark {
+
+    private PublicKey publicKey;
+
+    private PrivateKey privateKey;
+
+    private SecretKey aesKey;
+
+    private byte[] wrappedKey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        publicKey = BenchmarkKeys.SERVER_KEY_PAIR.getPublic();
+        privateKey = BenchmarkKeys.SERVER_KEY_PAIR.getPrivate();
+        aesKey = BenchmarkKeys.newAesKey();
+        wrappedKey = EncryptionUtil.encryptAESKeyWithRSA(aesKey, publicKey);
+        DataKeyCache.put(wrappedKey, aesKey);
+    }
+
+    @Benchmark
+    public byte[] wrap() {
+        return EncryptionUtil.encryptAESKeyWithRSA(aesKey, publicKey);
+    }
+
+    @Benchmark
+    public SecretKey unwrap() {
+        return EncryptionUtil.decryptAESKeyWithRSA(wrappedKey, privateKey);
+    }
+
+    @Benchmark
+    public SecretKey unwrapCached() {
+        return DataKeyCache.unwrap(wrappedKey, privateKey);
+    }
+}
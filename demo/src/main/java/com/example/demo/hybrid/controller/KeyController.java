@@ -1,9 +1,13 @@
 package com.example.demo.hybrid.controller;
 
 import com.example.demo.hybrid.until.constant.RegexConstant;
+import com.example.demo.hybrid.until.encryptions.KeyContentCache;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
 import com.example.demo.hybrid.until.validate.ValidationUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,43 +15,73 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/keys")
 public class KeyController {
 
+    @Autowired
+    private KeyStorage keyStorage;
+
+    @Value("${hybrid.key-serving.max-age-seconds:3600}")
+    private long maxAgeSeconds;
+
+    /**
+     * Serves a public key file with a strong ETag and Last-Modified, answering conditional requests
+     * for an unchanged key with 304 Not Modified. Only files named {@code <id>_publicKey.pem} are served,
+     * any other key file is refused.
+     *
+     * @param fileName The key file name under the keys directory.
+     * @param request  The current request, used to evaluate If-None-Match and If-Modified-Since.
+     * @return The Base64 encoded key, or an empty 304 response.
+     */
     @GetMapping("/{fileName}")
-    public ResponseEntity<byte[]> getKey(@PathVariable String fileName) {
+    public ResponseEntity<byte[]> getKey(@PathVariable String fileName, WebRequest request) {
         try {
             // Validate the file name
             ValidationUtils.validateFilePath(fileName);
 
-            // Construct the full path to the file
-            Path path = Paths.get(RegexConstant.KEY_PATH_PREFIX + fileName);
-
-            // Check if the file exists
-            if (!Files.exists(path)) {
-                log.error("File not found: {}", path.toString());
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(("File not found: " + fileName).getBytes());
+            // Khóa riêng không bao giờ được trả qua API, kể cả khi email chứa chuỗi "publicKey"
+            if (!fileName.endsWith(RegexConstant.PUBLIC_KEY_FILE_SUFFIX)) {
+                log.warn("Refused to serve non public key file: {}", fileName);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(("Only public keys can be served: " + fileName).getBytes());
             }
 
-            // Read the file content
-            byte[] content = Files.readAllBytes(path);
+            // Read the key content, from the cache when it is unchanged
+            KeyContentCache.KeyContent key = KeyContentCache.get(keyStorage,
+                    RegexConstant.KEY_PATH_PREFIX + fileName);
 
-            // Set response headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            // Khóa công khai được phép cache ở proxy
+            CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+
+            // Return 304 when the client already has this version of the key
+            if (request.checkNotModified(key.etag(), key.lastModified().toEpochMilli())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(key.etag())
+                        .lastModified(key.lastModified())
+                        .cacheControl(cacheControl)
+                        .build();
+            }
 
             // Return the response
-            return new ResponseEntity<>(content, headers, HttpStatus.OK);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .eTag(key.etag())
+                    .lastModified(key.lastModified())
+                    .cacheControl(cacheControl)
+                    .body(key.content());
 
+        } catch (NoSuchFileException e) {
+            log.error("File not found: {}", fileName);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(("File not found: " + fileName).getBytes());
         } catch (IOException e) {
             log.error("Error reading file: {}", fileName, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1,16 +1,30 @@
 package com.example.demo.hybrid.controller;
 
+import com.example.demo.hybrid.dto.EncryptedTransactionDTO;
+import com.example.demo.hybrid.dto.TransactionAckDTO;
+import com.example.demo.hybrid.dto.TransactionBatchResultDTO;
 import com.example.demo.hybrid.dto.TransactionDTO;
+import com.example.demo.hybrid.dto.TransactionEnvelopeDTO;
+import com.example.demo.hybrid.dto.TransactionPageDTO;
 import com.example.demo.hybrid.service.iplm.TransactionServiceImpl;
 import com.example.demo.hybrid.until.constant.CommonConstant;
 import com.example.demo.hybrid.until.constant.EncryptionConstant;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/")
@@ -26,4 +40,70 @@ public class TransactionController {
 
            return transactionService.getTransaction(encryptedTransactionId,publicKey);
        }
+
+       @GetMapping("/get-transactions-by-encrypted-id")
+       public List<TransactionDTO> getTransactionsByEncryptedId
+               (@RequestParam(CommonConstant.PARAM_ENCRYPTED_TRANSACTION_ID) String encryptedTransactionId,
+                @RequestParam(EncryptionConstant.PUBLIC_KEY) String publicKey) {
+
+           return transactionService.getTransactionByEncryptedId(encryptedTransactionId, publicKey);
+       }
+
+       @GetMapping("/get-transactions-by-account")
+       public List<TransactionDTO> getTransactionsByAccount
+               (@RequestParam(CommonConstant.PARAM_ENCRYPTED_ACCOUNT) String encryptedAccount,
+                @RequestParam(EncryptionConstant.PUBLIC_KEY) String publicKey) {
+
+           return transactionService.getTransactionsByAccount(encryptedAccount, publicKey);
+       }
+
+       @GetMapping("/transactions/history")
+       public TransactionPageDTO getTransactionHistory
+               (@RequestParam(CommonConstant.PARAM_ENCRYPTED_ACCOUNT) String encryptedAccount,
+                @RequestParam(CommonConstant.PARAM_FROM) @DateTimeFormat(pattern = CommonConstant.DATE_FORMAT) LocalDate from,
+                @RequestParam(CommonConstant.PARAM_TO) @DateTimeFormat(pattern = CommonConstant.DATE_FORMAT) LocalDate to,
+                @RequestParam(value = CommonConstant.PARAM_CURSOR, required = false) String cursor,
+                @RequestParam(value = CommonConstant.PARAM_SIZE, defaultValue = CommonConstant.DEFAULT_SIZE) int size,
+                @RequestParam(EncryptionConstant.PUBLIC_KEY) String publicKey) {
+
+           return transactionService.getTransactionHistory(encryptedAccount, from, to, cursor, size, publicKey);
+       }
+
+       @GetMapping(value = "/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+       public ResponseEntity<StreamingResponseBody> exportTransactions
+               (@RequestParam(CommonConstant.PARAM_FROM) @DateTimeFormat(pattern = CommonConstant.DATE_FORMAT) LocalDate from,
+                @RequestParam(CommonConstant.PARAM_TO) @DateTimeFormat(pattern = CommonConstant.DATE_FORMAT) LocalDate to,
+                @RequestParam(EncryptionConstant.PUBLIC_KEY) String publicKey) {
+
+           StreamingResponseBody body = outputStream ->
+                   transactionService.exportTransactions(from, to, publicKey, outputStream);
+
+           return ResponseEntity.ok()
+                   .contentType(MediaType.APPLICATION_NDJSON)
+                   .body(body);
+       }
+
+       @PostMapping("/transactions/envelope")
+       public ResponseEntity<Void> saveTransaction(@RequestBody TransactionEnvelopeDTO envelope) {
+
+           transactionService.saveTransaction(envelope);
+           return ResponseEntity.status(HttpStatus.CREATED).build();
+       }
+
+       @PostMapping("/transactions/envelope/async")
+       public CompletableFuture<TransactionAckDTO> submitTransaction(@RequestBody TransactionEnvelopeDTO envelope) {
+
+           // Request được trả về khi group commit chứa giao dịch hoàn tất, không giữ thread của Tomcat
+           return transactionService.submitTransaction(envelope);
+       }
+
+       @PostMapping("/transactions/batch")
+       public TransactionBatchResultDTO saveTransactions(@RequestBody List<EncryptedTransactionDTO> transactions) {
+
+           int savedRecords = transactionService.saveTransactions(transactions);
+           return TransactionBatchResultDTO.builder()
+                   .transactions(transactions.size())
+                   .savedRecords(savedRecords)
+                   .build();
+       }
 }
@@ -1,13 +1,19 @@
 package com.example.demo.hybrid.controller;
 
-import com.example.demo.hybrid.entity.UsersEntity;
+import com.example.demo.hybrid.dto.UserBulkResultDTO;
+import com.example.demo.hybrid.dto.UserDTO;
+import com.example.demo.hybrid.exception.InvalidInputException;
+import com.example.demo.hybrid.service.IAccountService;
 import com.example.demo.hybrid.service.IUserService;
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.repository.query.Param;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -18,19 +24,41 @@ public class UserController {
     @Autowired
     private IUserService userService;
 
+    @Autowired
+    private IAccountService accountService;
+
     @PostMapping("/save")
-    public ResponseEntity<?> createUser(@RequestBody UsersEntity user) {
+    public ResponseEntity<?> createUser(@RequestBody UserDTO user) {
         try {
-            UsersEntity savedUser = userService.saveUser(user);
+            UserDTO savedUser = userService.saveUser(user);
             return ResponseEntity.ok(savedUser);
+        } catch (InvalidInputException e) {
+            // Lỗi dữ liệu đầu vào, ví dụ giá trị quá dài, được trả về 400 qua GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body(e.getStackTrace());
         }
     }
 
+    @PostMapping("/bulk")
+    public UserBulkResultDTO saveUsers(@RequestBody List<UserDTO> users) {
+
+        // Lỗi của từng người dùng được trả về trong kết quả, không làm hỏng cả lô
+        return userService.saveUsers(users);
+    }
+
+    @PostMapping("/accounts")
+    public ResponseEntity<Void> linkAccount(@RequestParam(CommonConstant.PARAM_ENCRYPTED_ACCOUNT) String encryptedAccount,
+                                            @RequestParam(EncryptionConstant.PUBLIC_KEY) String publicKey) {
+
+        // Tài khoản thuộc về người dùng liên kết đầu tiên, các API giao dịch theo tài khoản kiểm tra liên kết này
+        accountService.linkAccount(encryptedAccount, publicKey);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
     @PostMapping("/get-user")
-    public ResponseEntity<UsersEntity> getUser(@RequestBody Map<String, String> requestData) {
+    public ResponseEntity<UserDTO> getUser(@RequestBody Map<String, String> requestData) {
 
         if (Objects.isNull(requestData.get("userId")) || requestData.get("userId").isEmpty() ) {
             // Handle case where publicKeyBase64 is missing or empty
@@ -47,7 +75,7 @@ public class UserController {
 
 
         try {
-            UsersEntity user = userService.getUser(userId, publicKeyBase64);
+            UserDTO user = userService.getUser(userId, publicKeyBase64);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
             // Handle exceptions
@@ -0,0 +1,19 @@
+package com.example.demo.hybrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EncryptedTransactionDTO {
+
+    private String encryptedTransactionId;
+    private String encryptedSourceAccount;
+    private String encryptedDestinationAccount;
+    private String encryptedAmount;
+    private String encryptedTime;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.hybrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionAckDTO {
+
+    // Mã xác nhận của giao dịch trong hàng đợi ghi, tăng dần theo thứ tự nhận, bằng 0 khi ghi đồng bộ
+    private long ackId;
+
+    private int savedRecords;
+}
@@ -0,0 +1,16 @@
+package com.example.demo.hybrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionBatchResultDTO {
+
+    private int transactions;
+    private int savedRecords;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.hybrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A transaction sent as one hybrid envelope: an AES session key wrapped with the server RSA public key, and
+ * the JSON encoded transaction fields encrypted with that key in the AES-GCM envelope format.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionEnvelopeDTO {
+
+    // Khóa AES phiên được mã hóa bằng RSA, dạng Base64
+    private String encryptedKey;
+
+    // JSON {transactionId, sourceAccount, destinationAccount, amount, time} mã hóa AES-GCM, dạng Base64
+    private String payload;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.hybrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionPageDTO {
+
+    private List<TransactionDTO> transactions;
+
+    // Cursor để lấy trang tiếp theo, null khi đã hết dữ liệu
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.hybrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBulkErrorDTO {
+
+    // Vị trí của người dùng trong danh sách gửi lên
+    private int index;
+
+    private String message;
+}
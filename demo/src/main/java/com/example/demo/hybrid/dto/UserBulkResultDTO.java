@@ -0,0 +1,19 @@
+package com.example.demo.hybrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBulkResultDTO {
+
+    private int users;
+    private int savedUsers;
+    private List<UserBulkErrorDTO> errors;
+}
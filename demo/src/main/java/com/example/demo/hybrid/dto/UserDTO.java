@@ -0,0 +1,29 @@
+package com.example.demo.hybrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserDTO {
+
+    private Long accountId;
+
+    private String userName;
+
+    // Dạng rõ khi gửi lên và khi đọc người dùng, dạng Base64 của bản mã khi vừa lưu
+    private String password;
+
+    private String email;
+
+    // Khóa AES được bọc bằng RSA, mã hóa Base64
+    private String encryptedAESKey;
+
+    private String publicKeyPath;
+
+    private String privateKeyPath;
+}
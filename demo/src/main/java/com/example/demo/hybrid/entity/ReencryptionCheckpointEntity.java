@@ -0,0 +1,30 @@
+package com.example.demo.hybrid.entity;
+
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a re-encryption job over one table, committed together with each chunk.
+ */
+@Entity(name = "reencryption_checkpoint")
+@Table
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReencryptionCheckpointEntity {
+
+    @Id
+    @Column(columnDefinition = CommonConstant.VARCHAR_50)
+    private String jobName;
+
+    // Khóa chính lớn nhất đã xử lý xong
+    private Long lastId;
+
+    private Long processedRows;
+
+    private LocalDateTime updatedAt;
+}
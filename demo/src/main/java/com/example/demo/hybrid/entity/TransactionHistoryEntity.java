@@ -9,7 +9,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity(name = "transaction_history")
-@Table
+@Table(indexes = {
+        @Index(name = "idx_transaction_history_transaction_id_bidx", columnList = "transaction_id_bidx"),
+        // Phục vụ cả tìm theo tài khoản và phân trang keyset theo (time, id) trong một tài khoản
+        @Index(name = "idx_transaction_history_account_bidx_time_id", columnList = "account_bidx, time, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -25,8 +29,8 @@ public class TransactionHistoryEntity {
     private String transactionId;
 
 
-    @Column(columnDefinition = CommonConstant.LONG_TEXT)
-    private String account;
+    @Column(columnDefinition = CommonConstant.VARBINARY_512)
+    private byte[] account;
 
     @Column(columnDefinition = CommonConstant.LONG_TEXT)
     private Long inDebt;
@@ -37,6 +41,17 @@ public class TransactionHistoryEntity {
     @JsonFormat(pattern = CommonConstant.DATE_FORMAT)
     private LocalDate time;
 
-    @Column(columnDefinition = CommonConstant.LONG_TEXT)
-    private String encryptedAESKey;
+    @Column(columnDefinition = CommonConstant.VARBINARY_512)
+    private byte[] encryptedAESKey;
+
+    // Định dạng bản mã của account, null với bản ghi cũ chưa được job re-encryption đánh dấu
+    @Column(name = "cipher_version", columnDefinition = CommonConstant.TINYINT)
+    private Byte cipherVersion;
+
+    // Blind index HMAC của transactionId và account, dùng để tìm kiếm bằng index
+    @Column(name = "transaction_id_bidx", columnDefinition = CommonConstant.CHAR_64)
+    private String transactionIdIndex;
+
+    @Column(name = "account_bidx", columnDefinition = CommonConstant.CHAR_64)
+    private String accountIndex;
 }
@@ -0,0 +1,26 @@
+package com.example.demo.hybrid.entity;
+
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Owner of an account number. Transactions only store the blind index of their accounts, so ownership is
+ * recorded against the same index and the account number itself is never stored in plain text.
+ */
+@Entity(name = "user_accounts")
+@Table(indexes = @Index(name = "idx_user_accounts_user_id", columnList = "user_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserAccountEntity {
+
+    // Blind index HMAC của số tài khoản, là khóa chính nên mỗi tài khoản chỉ thuộc về một người dùng
+    @Id
+    @Column(name = "account_bidx", columnDefinition = CommonConstant.CHAR_64)
+    private String accountIndex;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+}
@@ -1,11 +1,20 @@
 package com.example.demo.hybrid.entity;
 
+import com.example.demo.hybrid.until.constant.CacheConstant;
 import com.example.demo.hybrid.until.constant.CommonConstant;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity(name = "users")
-@Table
+// Mỗi khóa công khai chỉ xác định một người dùng, ràng buộc duy nhất cũng là index khi tìm theo fingerprint
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_users_public_key_fingerprint",
+        columnNames = "public_key_fingerprint"))
+// Chỉ có hiệu lực khi bật hybrid.user-cache.enabled, cache giữ giá trị đã mã hóa như trong database
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConstant.USERS_ENTITY_REGION)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -20,14 +29,20 @@ public class UsersEntity {
     @Column(columnDefinition = CommonConstant.VARCHAR_50)
     private String userName;
 
-    @Column(columnDefinition = CommonConstant.LONG_TEXT)
-    private String password;
+    // Bản mã nhị phân, chỉ được mã hóa Base64 khi chuyển sang UserDTO trả về qua API
+    @Column(columnDefinition = CommonConstant.VARBINARY_512)
+    private byte[] password;
 
-    @Column(columnDefinition = CommonConstant.LONG_TEXT)
-    private String email;
+    @Column(columnDefinition = CommonConstant.VARBINARY_512)
+    private byte[] email;
 
-    @Column(columnDefinition =CommonConstant.LONG_TEXT)
-    private String encryptedAESKey;
+    @Column(columnDefinition = CommonConstant.VARBINARY_512)
+    private byte[] encryptedAESKey;
+
+    // Định dạng bản mã của password và email, null với bản ghi cũ chưa được job re-encryption đánh dấu
+    @JsonIgnore
+    @Column(name = "cipher_version", columnDefinition = CommonConstant.TINYINT)
+    private Byte cipherVersion;
 
     @Column(columnDefinition = CommonConstant.LONG_TEXT)
     private String publicKeyPath;
@@ -35,4 +50,9 @@ public class UsersEntity {
     @Column(columnDefinition = CommonConstant.LONG_TEXT)
     private String privateKeyPath;
 
+    // SHA-256 của khóa công khai dạng X.509, dùng để xác thực người gọi mà không cần đọc tệp khóa
+    @JsonIgnore
+    @Column(name = "public_key_fingerprint", columnDefinition = CommonConstant.BINARY_32)
+    private byte[] publicKeyFingerprint;
+
 }
@@ -41,6 +41,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidInputException.class)
+    public ResponseEntity<String> handleInvalidInputException(InvalidInputException ex) {
+        // Lỗi dự kiến từ client, chỉ ghi log ở mức debug
+        log.debug(LogMessageConstants.INVALID_INPUT_EXCEPTION, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid input: " + ex.getMessage());
+    }
+
+    @ExceptionHandler(QueueFullException.class)
+    public ResponseEntity<String> handleQueueFullException(QueueFullException ex) {
+        log.warn(LogMessageConstants.QUEUE_FULL_EXCEPTION, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
     @ExceptionHandler(ChangeSetPersister.NotFoundException.class)
     public ResponseEntity<String> handleNotFoundException(NotFoundException ex) {
         log.error(LogMessageConstants.NOT_FOUND_EXCEPTION, ex.getMessage());
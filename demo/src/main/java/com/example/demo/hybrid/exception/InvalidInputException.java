@@ -0,0 +1,24 @@
+package com.example.demo.hybrid.exception;
+
+/**
+ * Ngoại lệ được ném khi dữ liệu đầu vào không hợp lệ (rỗng, sai định dạng Base64...).
+ * <p>
+ * Đây là lỗi dự kiến do client gửi sai, nên ngoại lệ không ghi lại stack trace để việc từ chối
+ * một lượng lớn request rác không tốn CPU.
+ */
+public class InvalidInputException extends IllegalArgumentException {
+
+    /**
+     * Constructor khởi tạo một ngoại lệ mới với thông báo chi tiết cụ thể.
+     *
+     * @param message Thông báo chi tiết về lỗi.
+     */
+    public InvalidInputException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.hybrid.exception;
+
+/**
+ * Ngoại lệ được ném khi hàng đợi ghi đầy và không nhận thêm bản ghi trong thời gian chờ cho phép.
+ */
+public class QueueFullException extends RuntimeException {
+
+    /**
+     * Constructor khởi tạo một ngoại lệ mới với thông báo chi tiết cụ thể.
+     *
+     * @param message Thông báo chi tiết về lỗi.
+     */
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.hybrid.repository;
+
+import com.example.demo.hybrid.entity.ReencryptionCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReencryptionCheckpointRepository extends JpaRepository<ReencryptionCheckpointEntity, String> {
+}
@@ -0,0 +1,58 @@
+package com.example.demo.hybrid.repository;
+
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes transaction history rows with JDBC batch inserts.
+ * <p>
+ * {@link TransactionHistoryEntity} uses {@code GenerationType.IDENTITY}, which stops Hibernate from batching
+ * inserts. This repository binds the rows directly and lets the MySQL driver rewrite each batch into a
+ * multi-row insert ({@code rewriteBatchedStatements=true}), while the ids are still assigned by auto-increment.
+ */
+@Repository
+public class TransactionHistoryBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO transaction_history "
+            + "(transaction_id, account, in_debt, have, time, encryptedaeskey, cipher_version, transaction_id_bidx, "
+            + "account_bidx) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all records in batches of {@link CommonConstant#JDBC_BATCH_SIZE}.
+     * Joins the caller's transaction when there is one.
+     *
+     * @param records The records to insert.
+     * @return The number of inserted rows.
+     */
+    public int insertAll(List<TransactionHistoryEntity> records) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, records, CommonConstant.JDBC_BATCH_SIZE,
+                (ps, record) -> {
+                    ps.setString(1, record.getTransactionId());
+                    ps.setBytes(2, record.getAccount());
+                    ps.setLong(3, record.getInDebt());
+                    ps.setLong(4, record.getHave());
+                    ps.setDate(5, Date.valueOf(record.getTime()));
+                    ps.setBytes(6, record.getEncryptedAESKey());
+                    ps.setObject(7, record.getCipherVersion(), Types.TINYINT);
+                    ps.setString(8, record.getTransactionIdIndex());
+                    ps.setString(9, record.getAccountIndex());
+                });
+
+        // Driver có thể trả về SUCCESS_NO_INFO khi gộp batch, khi đó tính theo số bản ghi đã gửi
+        return Arrays.stream(counts)
+                .flatMapToInt(Arrays::stream)
+                .map(count -> count < CommonConstant.ZERO ? 1 : count)
+                .sum();
+    }
+}
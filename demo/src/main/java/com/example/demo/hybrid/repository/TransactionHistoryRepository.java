@@ -1,13 +1,69 @@
 package com.example.demo.hybrid.repository;
 
 import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionHistoryRepository extends JpaRepository<TransactionHistoryEntity,Long> {
 
       List<TransactionHistoryEntity> findAllByTransactionId(String transactionId);
+
+      List<TransactionHistoryEntity> findAllByTransactionIdIndex(String transactionIdIndex);
+
+      List<TransactionHistoryEntity> findAllByAccountIndex(String accountIndex);
+
+      List<TransactionHistoryEntity> findByAccountIndexIsNullAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+      List<TransactionHistoryEntity> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+      /**
+       * Streams the transactions of some accounts in a date range row by row. Must be consumed inside a
+       * transaction and closed afterwards; the connection cannot run other statements until the stream is closed.
+       */
+      @QueryHints({
+              @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CommonConstant.EXPORT_FETCH_SIZE),
+              @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+      })
+      Stream<TransactionHistoryEntity> streamAllByAccountIndexInAndTimeBetweenOrderByIdAsc(
+              Collection<String> accountIndexes, LocalDate from, LocalDate to);
+
+      /**
+       * Returns the first page of an account's transactions in a date range, newest first.
+       * Served by the {@code (account_bidx, time, id)} index.
+       */
+      @Query("select t from transaction_history t where t.accountIndex = :accountIndex"
+              + " and t.time between :from and :to"
+              + " order by t.time desc, t.id desc")
+      List<TransactionHistoryEntity> findHistoryFirstPage(@Param("accountIndex") String accountIndex,
+                                                          @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to,
+                                                          Pageable pageable);
+
+      /**
+       * Returns the page following the row {@code (time, id)}, seeking in the index instead of skipping
+       * rows with an offset, so every page costs the same.
+       */
+      @Query("select t from transaction_history t where t.accountIndex = :accountIndex"
+              + " and t.time between :from and :to"
+              + " and (t.time < :time or (t.time = :time and t.id < :id))"
+              + " order by t.time desc, t.id desc")
+      List<TransactionHistoryEntity> findHistoryPageAfter(@Param("accountIndex") String accountIndex,
+                                                          @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to,
+                                                          @Param("time") LocalDate time,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
 }
@@ -0,0 +1,266 @@
+package com.example.demo.hybrid.repository;
+
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.exception.QueueFullException;
+import com.example.demo.hybrid.until.constant.MetricsConstant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind queue that persists transaction records in group commits.
+ * <p>
+ * Callers enqueue the records of one transaction and get a future that completes with an ack id once the
+ * records are committed. A single writer thread collects queued transactions until the batch is full or the
+ * flush window has passed, and writes them with one JDBC batch in one database transaction. Enabled with
+ * {@code hybrid.write-behind.enabled=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hybrid.write-behind.enabled", havingValue = "true")
+public class TransactionWriteBehindQueue {
+
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000L;
+
+    private final TransactionHistoryBatchRepository transactionHistoryBatchRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentLinkedQueue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+
+    // Số giao dịch đang chờ, dùng để giới hạn hàng đợi mà không cần khóa
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final AtomicLong ackSequence = new AtomicLong();
+
+    private final int capacity;
+
+    private final int maxBatchSize;
+
+    private final long flushWindowNanos;
+
+    private final long offerTimeoutNanos;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    // Được bật sau khi writer đã dừng, các giao dịch thêm vào sau đó sẽ bị từ chối
+    private volatile boolean closed;
+
+    private final DistributionSummary commitBatchSize;
+
+    private final Timer commitDuration;
+
+    private final Counter rejected;
+
+    public TransactionWriteBehindQueue(TransactionHistoryBatchRepository transactionHistoryBatchRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${hybrid.write-behind.capacity:10000}") int capacity,
+                                       @Value("${hybrid.write-behind.max-batch-size:500}") int maxBatchSize,
+                                       @Value("${hybrid.write-behind.flush-window-ms:5}") long flushWindowMs,
+                                       @Value("${hybrid.write-behind.offer-timeout-ms:100}") long offerTimeoutMs) {
+        if (capacity < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Write-behind capacity and batch size must be at least 1");
+        }
+        this.transactionHistoryBatchRepository = transactionHistoryBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.flushWindowNanos = TimeUnit.MILLISECONDS.toNanos(flushWindowMs);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        this.writer = new Thread(this::drainLoop, "transaction-write-behind");
+        this.writer.setDaemon(true);
+
+        Gauge.builder(MetricsConstant.WRITE_BEHIND_DEPTH, depth, AtomicInteger::get)
+                .description("Transactions waiting in the write-behind queue")
+                .register(Metrics.globalRegistry);
+        this.commitBatchSize = DistributionSummary.builder(MetricsConstant.WRITE_BEHIND_BATCH_SIZE)
+                .description("Transactions written per group commit")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) maxBatchSize)
+                .register(Metrics.globalRegistry);
+        this.commitDuration = Timer.builder(MetricsConstant.WRITE_BEHIND_COMMIT)
+                .description("Duration of write-behind group commits")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MetricsConstant.WRITE_BEHIND_COMMIT_MIN)
+                .maximumExpectedValue(MetricsConstant.WRITE_BEHIND_COMMIT_MAX)
+                .register(Metrics.globalRegistry);
+        this.rejected = Metrics.counter(MetricsConstant.WRITE_BEHIND_REJECTED);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Drains the queue and stops the writer. Transactions submitted afterwards are rejected.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT_MS);
+        closed = true;
+
+        // Giao dịch được thêm vào sau khi writer dừng sẽ không bao giờ được ghi
+        PendingWrite leftover;
+        while ((leftover = queue.poll()) != null) {
+            depth.decrementAndGet();
+            leftover.ack().completeExceptionally(new IllegalStateException("Write-behind queue is shut down"));
+        }
+    }
+
+    /**
+     * Enqueues the records of one transaction. They are committed together in the same group commit.
+     *
+     * @param records The records of one transaction.
+     * @return A future completed with the ack id once the records are committed.
+     * @throws QueueFullException    if the queue stays full for longer than the offer timeout.
+     * @throws IllegalStateException if the queue is shut down.
+     */
+    public CompletableFuture<Long> submit(List<TransactionHistoryEntity> records) {
+        if (!running) {
+            throw new IllegalStateException("Write-behind queue is shut down");
+        }
+
+        int queued = reserveSlot();
+        PendingWrite write = new PendingWrite(ackSequence.incrementAndGet(), records, new CompletableFuture<>());
+        queue.offer(write);
+
+        // stop() có thể đã dọn hàng đợi trước khi giao dịch này được thêm vào, khi đó tự lấy ra và báo lỗi
+        if (closed && queue.remove(write)) {
+            depth.decrementAndGet();
+            write.ack().completeExceptionally(new IllegalStateException("Write-behind queue is shut down"));
+            return write.ack();
+        }
+
+        // Đánh thức writer khi hàng đợi vừa có dữ liệu hoặc đã đủ một batch
+        if (queued == 1 || queued >= maxBatchSize) {
+            LockSupport.unpark(writer);
+        }
+        return write.ack();
+    }
+
+    /**
+     * Returns the number of transactions waiting to be written.
+     *
+     * @return The queue depth.
+     */
+    public int depth() {
+        return depth.get();
+    }
+
+    private int reserveSlot() {
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (true) {
+            int current = depth.get();
+            if (current < capacity) {
+                if (depth.compareAndSet(current, current + 1)) {
+                    return current + 1;
+                }
+                continue;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                rejected.increment();
+                throw new QueueFullException("Write-behind queue is full, retry later");
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingWrite first = queue.poll();
+            if (first == null) {
+                LockSupport.parkNanos(flushWindowNanos);
+                continue;
+            }
+            batch.add(first);
+
+            // Gom thêm giao dịch cho tới khi đủ batch hoặc hết cửa sổ thời gian
+            long deadline = System.nanoTime() + flushWindowNanos;
+            while (batch.size() < maxBatchSize) {
+                PendingWrite next = queue.poll();
+                if (next != null) {
+                    batch.add(next);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (!running || remaining <= 0) {
+                    break;
+                }
+                LockSupport.parkNanos(remaining);
+            }
+
+            depth.addAndGet(-batch.size());
+            try {
+                commit(batch);
+            } catch (Throwable e) {
+                // Không để writer dừng vì một Error, các giao dịch còn lại trong batch được báo lỗi
+                log.error("Group commit of {} transactions failed", batch.size(), e);
+                for (PendingWrite write : batch) {
+                    write.ack().completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+        log.info("Write-behind writer stopped after {} transactions", ackSequence.get());
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<TransactionHistoryEntity> rows = new ArrayList<>(batch.size() * 2);
+        for (PendingWrite write : batch) {
+            rows.addAll(write.records());
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> transactionHistoryBatchRepository.insertAll(rows));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).ack().completeExceptionally(e);
+                return;
+            }
+            // Ghi lại từng giao dịch để một bản ghi lỗi không làm hỏng cả batch
+            log.warn("Group commit of {} transactions failed, retrying one by one", batch.size(), e);
+            for (PendingWrite write : batch) {
+                commit(List.of(write));
+            }
+            return;
+        }
+        commitDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        commitBatchSize.record(batch.size());
+
+        for (PendingWrite write : batch) {
+            write.ack().complete(write.id());
+        }
+    }
+
+    private record PendingWrite(long id, List<TransactionHistoryEntity> records, CompletableFuture<Long> ack) {
+    }
+}
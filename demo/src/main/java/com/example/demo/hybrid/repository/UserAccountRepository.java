@@ -0,0 +1,13 @@
+package com.example.demo.hybrid.repository;
+
+import com.example.demo.hybrid.entity.UserAccountEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserAccountRepository extends JpaRepository<UserAccountEntity, String> {
+
+    List<UserAccountEntity> findAllByUserId(Long userId);
+}
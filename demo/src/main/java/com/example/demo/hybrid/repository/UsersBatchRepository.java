@@ -0,0 +1,56 @@
+package com.example.demo.hybrid.repository;
+
+import com.example.demo.hybrid.entity.UsersEntity;
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes user rows with JDBC batch inserts.
+ * <p>
+ * {@link UsersEntity} uses {@code GenerationType.IDENTITY}, which stops Hibernate from batching inserts.
+ * Like {@link TransactionHistoryBatchRepository}, this repository binds the rows directly and lets the MySQL
+ * driver rewrite each batch into a multi-row insert. The rows must already hold their encrypted values.
+ */
+@Repository
+public class UsersBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO users "
+            + "(user_name, password, email, encryptedaeskey, cipher_version, public_key_path, private_key_path, "
+            + "public_key_fingerprint) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all users in batches of {@link CommonConstant#JDBC_BATCH_SIZE}.
+     * Joins the caller's transaction when there is one.
+     *
+     * @param users The encrypted users to insert.
+     * @return The number of inserted rows.
+     */
+    public int insertAll(List<UsersEntity> users) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, users, CommonConstant.JDBC_BATCH_SIZE,
+                (ps, user) -> {
+                    ps.setString(1, user.getUserName());
+                    ps.setBytes(2, user.getPassword());
+                    ps.setBytes(3, user.getEmail());
+                    ps.setBytes(4, user.getEncryptedAESKey());
+                    ps.setObject(5, user.getCipherVersion(), Types.TINYINT);
+                    ps.setString(6, user.getPublicKeyPath());
+                    ps.setString(7, user.getPrivateKeyPath());
+                    ps.setBytes(8, user.getPublicKeyFingerprint());
+                });
+
+        // Driver có thể trả về SUCCESS_NO_INFO khi gộp batch, khi đó tính theo số bản ghi đã gửi
+        return Arrays.stream(counts)
+                .flatMapToInt(Arrays::stream)
+                .map(count -> count < CommonConstant.ZERO ? 1 : count)
+                .sum();
+    }
+}
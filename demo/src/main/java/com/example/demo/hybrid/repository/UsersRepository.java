@@ -1,9 +1,30 @@
 package com.example.demo.hybrid.repository;
 
 import com.example.demo.hybrid.entity.UsersEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface UsersRepository extends JpaRepository<UsersEntity, Long> {
+
+    List<UsersEntity> findByAccountIdGreaterThanOrderByAccountIdAsc(Long accountId, Pageable pageable);
+
+    List<UsersEntity> findByPublicKeyFingerprintIsNullAndAccountIdGreaterThanOrderByAccountIdAsc(Long accountId,
+                                                                                                Pageable pageable);
+
+    Optional<UsersEntity> findByPublicKeyFingerprint(byte[] publicKeyFingerprint);
+
+    /**
+     * Returns which of the given public key fingerprints already belong to a user.
+     * Served by the {@code public_key_fingerprint} index.
+     */
+    @Query("select u.publicKeyFingerprint from users u where u.publicKeyFingerprint in :fingerprints")
+    List<byte[]> findPublicKeyFingerprintsIn(@Param("fingerprints") Collection<byte[]> fingerprints);
 }
@@ -0,0 +1,19 @@
+package com.example.demo.hybrid.service;
+
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.entity.UsersEntity;
+
+import java.util.List;
+
+public interface IAccountService {
+
+     void linkAccount(String encryptedAccount, String publicKeyContent);
+
+     UsersEntity resolveCaller(String publicKeyContent);
+
+     String requireOwnedAccountIndex(String account, String publicKeyContent);
+
+     List<String> ownedAccountIndexes(UsersEntity caller);
+
+     List<TransactionHistoryEntity> requireOwnedLegs(List<TransactionHistoryEntity> legs, String publicKeyContent);
+}
@@ -0,0 +1,8 @@
+package com.example.demo.hybrid.service;
+
+public interface IReencryptionService {
+
+     long reencryptTransactions(boolean restart);
+
+     long reencryptUsers(boolean restart);
+}
@@ -1,15 +1,39 @@
 package com.example.demo.hybrid.service;
 
+import com.example.demo.hybrid.dto.EncryptedTransactionDTO;
+import com.example.demo.hybrid.dto.TransactionAckDTO;
 import com.example.demo.hybrid.dto.TransactionDTO;
+import com.example.demo.hybrid.dto.TransactionEnvelopeDTO;
+import com.example.demo.hybrid.dto.TransactionPageDTO;
 import com.example.demo.hybrid.entity.TransactionHistoryEntity;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface ITransactionService {
 
      void saveTransaction(String encryptedTransactionId, String encryptedSourceAccount,
                                 String encryptedDestinationAccount, String amount, String encryptedTime) throws Exception;
 
+     void saveTransaction(TransactionEnvelopeDTO envelope);
+
+     CompletableFuture<TransactionAckDTO> submitTransaction(TransactionEnvelopeDTO envelope);
+
+     int saveTransactions(List<EncryptedTransactionDTO> transactions);
+
      List<TransactionDTO> getTransaction(String encryptedKeyWords, String publicKeyContent);
+
+     List<TransactionDTO> getTransactionByEncryptedId(String encryptedTransactionId, String publicKeyContent);
+
+     List<TransactionDTO> getTransactionsByAccount(String encryptedAccount, String publicKeyContent);
+
+     TransactionPageDTO getTransactionHistory(String encryptedAccount, LocalDate from, LocalDate to, String cursor,
+                                              int size, String publicKeyContent);
+
+     long backfillBlindIndexes();
+
+     void exportTransactions(LocalDate from, LocalDate to, String publicKeyContent, OutputStream outputStream);
 }
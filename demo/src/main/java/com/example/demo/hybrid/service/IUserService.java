@@ -1,9 +1,16 @@
 package com.example.demo.hybrid.service;
 
-import com.example.demo.hybrid.entity.UsersEntity;
+import com.example.demo.hybrid.dto.UserBulkResultDTO;
+import com.example.demo.hybrid.dto.UserDTO;
+
+import java.util.List;
 
 public interface IUserService {
-     UsersEntity saveUser(UsersEntity user) throws Exception;
+     UserDTO saveUser(UserDTO user) throws Exception;
+
+     UserBulkResultDTO saveUsers(List<UserDTO> users);
+
+     UserDTO getUser(Long id,String publicKeyContent);
 
-     UsersEntity getUser(Long id,String publicKeyContent);
+     long backfillPublicKeyFingerprints();
 }
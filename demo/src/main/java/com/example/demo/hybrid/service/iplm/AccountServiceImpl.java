@@ -0,0 +1,169 @@
+package com.example.demo.hybrid.service.iplm;
+
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.entity.UserAccountEntity;
+import com.example.demo.hybrid.entity.UsersEntity;
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.repository.UserAccountRepository;
+import com.example.demo.hybrid.repository.UsersRepository;
+import com.example.demo.hybrid.service.IAccountService;
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.encryptions.BlindIndexer;
+import com.example.demo.hybrid.until.encryptions.CryptoExecutor;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.encryptions.HashUtils;
+import com.example.demo.hybrid.until.encryptions.ServerKeyRing;
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Identifies callers by their public key and checks which accounts they own.
+ * <p>
+ * A caller is the user whose stored public key fingerprint matches the key sent with the request. An account
+ * belongs to the user that linked it first; reads of an account's transactions are only served to that user.
+ */
+@Slf4j
+@Service
+public class AccountServiceImpl implements IAccountService {
+
+    private final UsersRepository usersRepository;
+
+    private final UserAccountRepository userAccountRepository;
+
+    private final BlindIndexer blindIndexer;
+
+    private final ServerKeyRing serverKeyRing;
+
+    private final CryptoExecutor cryptoExecutor;
+
+    public AccountServiceImpl(UsersRepository usersRepository,
+                              UserAccountRepository userAccountRepository,
+                              BlindIndexer blindIndexer,
+                              ServerKeyRing serverKeyRing,
+                              CryptoExecutor cryptoExecutor) {
+        this.usersRepository = usersRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.blindIndexer = blindIndexer;
+        this.serverKeyRing = serverKeyRing;
+        this.cryptoExecutor = cryptoExecutor;
+    }
+
+    /**
+     * Links an account to the caller. Linking an account the caller already owns does nothing.
+     *
+     * @param encryptedAccount The RSA encrypted account number.
+     * @param publicKeyContent The Base64 encoded public key of the caller.
+     * @throws EncryptionException If the key is not registered or the account belongs to another user.
+     */
+    @Override
+    @Transactional
+    public void linkAccount(String encryptedAccount, String publicKeyContent) {
+
+        ValidationUtils.validateString(encryptedAccount);
+        UsersEntity caller = resolveCaller(publicKeyContent);
+
+        String account = cryptoExecutor.call(
+                () -> EncryptionUtil.decryptDataWithRSA(encryptedAccount, serverKeyRing.currentPrivateKey()));
+        String accountIndex = blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, account);
+
+        Optional<UserAccountEntity> owner = userAccountRepository.findById(accountIndex);
+        if (owner.isPresent()) {
+            if (!owner.get().getUserId().equals(caller.getAccountId())) {
+                throw new EncryptionException("Account is already linked to another user");
+            }
+            return;
+        }
+
+        userAccountRepository.save(UserAccountEntity.builder()
+                .accountIndex(accountIndex)
+                .userId(caller.getAccountId())
+                .build());
+        log.info("Linked an account to user {}", caller.getAccountId());
+    }
+
+    /**
+     * Finds the user that registered the given public key.
+     *
+     * @param publicKeyContent The Base64 encoded public key of the caller.
+     * @return The caller.
+     * @throws EncryptionException If the key is not registered to any user.
+     */
+    @Override
+    public UsersEntity resolveCaller(String publicKeyContent) {
+
+        ValidationUtils.validateString(publicKeyContent);
+
+        // Xác định người gọi qua dấu vân tay khóa công khai, cột fingerprint là duy nhất
+        byte[] fingerprint = HashUtils.sha256(ValidationUtils.decodeKey(publicKeyContent).bytes());
+        return usersRepository.findByPublicKeyFingerprint(fingerprint)
+                .orElseThrow(() -> new EncryptionException("Provided public key is not registered to any account"));
+    }
+
+    /**
+     * Returns the blind index of an account after checking that the caller owns it.
+     *
+     * @param account          The plain account number.
+     * @param publicKeyContent The Base64 encoded public key of the caller.
+     * @return The blind index of the account.
+     * @throws EncryptionException If the key is not registered or the caller does not own the account.
+     */
+    @Override
+    public String requireOwnedAccountIndex(String account, String publicKeyContent) {
+
+        UsersEntity caller = resolveCaller(publicKeyContent);
+        String accountIndex = blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, account);
+
+        boolean owned = userAccountRepository.findById(accountIndex)
+                .map(owner -> owner.getUserId().equals(caller.getAccountId()))
+                .orElse(false);
+        if (!owned) {
+            throw new EncryptionException("Provided public key does not own the account");
+        }
+        return accountIndex;
+    }
+
+    /**
+     * Returns the blind indexes of all accounts linked to a user.
+     *
+     * @param caller The user.
+     * @return The account blind indexes, empty if the user has not linked any account.
+     */
+    @Override
+    public List<String> ownedAccountIndexes(UsersEntity caller) {
+
+        return userAccountRepository.findAllByUserId(caller.getAccountId()).stream()
+                .map(UserAccountEntity::getAccountIndex)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Keeps the legs of a transaction that belong to accounts owned by the caller. The same error is returned
+     * whether the transaction does not exist or belongs to other accounts, so callers cannot probe transaction ids.
+     *
+     * @param legs             The legs found for a transaction id.
+     * @param publicKeyContent The Base64 encoded public key of the caller.
+     * @return The legs of the caller's accounts.
+     * @throws EncryptionException If the key is not registered or the caller owns none of the legs.
+     */
+    @Override
+    public List<TransactionHistoryEntity> requireOwnedLegs(List<TransactionHistoryEntity> legs,
+                                                           String publicKeyContent) {
+
+        Set<String> owned = new HashSet<>(ownedAccountIndexes(resolveCaller(publicKeyContent)));
+        List<TransactionHistoryEntity> visible = legs.stream()
+                .filter(leg -> owned.contains(leg.getAccountIndex()))
+                .collect(Collectors.toList());
+        if (visible.isEmpty()) {
+            throw new EncryptionException("Provided public key does not own the transaction");
+        }
+        return visible;
+    }
+}
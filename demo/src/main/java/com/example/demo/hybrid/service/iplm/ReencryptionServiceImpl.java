@@ -0,0 +1,341 @@
+package com.example.demo.hybrid.service.iplm;
+
+import com.example.demo.hybrid.entity.ReencryptionCheckpointEntity;
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.entity.UsersEntity;
+import com.example.demo.hybrid.repository.ReencryptionCheckpointRepository;
+import com.example.demo.hybrid.repository.TransactionHistoryRepository;
+import com.example.demo.hybrid.repository.UsersRepository;
+import com.example.demo.hybrid.service.IReencryptionService;
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import com.example.demo.hybrid.until.constant.MetricsConstant;
+import com.example.demo.hybrid.until.encryptions.AesEnvelope;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.encryptions.ServerKeyRing;
+import com.example.demo.hybrid.until.encryptions.UserKeyCache;
+import com.example.demo.hybrid.until.helper.ExceptionHelper;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Re-encrypts stored ciphertext in the background, for server key rotation and for migrating legacy
+ * AES/ECB ciphertext to the AES-GCM envelope.
+ * <p>
+ * Rows are read in primary key order, one chunk per database transaction. The rows of a chunk are processed
+ * in parallel, and the checkpoint of the job is written in the same transaction as the chunk, so a restarted
+ * job continues after the last committed chunk and never re-encrypts a row twice. A row that cannot be
+ * re-encrypted is left unchanged, counted and logged, and the job moves on.
+ * <p>
+ * Transaction rows get their data key re-wrapped with the current server key when it was wrapped with the
+ * previous one, and their account migrated to AES-GCM. Users only get the cipher migration, their data keys
+ * are wrapped with per-user RSA keys that are not rotated. Rows written before their {@code cipher_version}
+ * was recorded are decrypted to find their format, migrated if needed and marked, so that reads no longer
+ * have to guess.
+ */
+@Slf4j
+@Service
+public class ReencryptionServiceImpl implements IReencryptionService {
+
+    private final TransactionHistoryRepository transactionHistoryRepository;
+
+    private final UsersRepository usersRepository;
+
+    private final ReencryptionCheckpointRepository checkpointRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ServerKeyRing serverKeyRing;
+
+    private final KeyStorage keyStorage;
+
+    private final int chunkSize;
+
+    private final int maxRowsPerSecond;
+
+    private final ForkJoinPool workers;
+
+    // Số bản ghi đã xử lý của lần chạy hiện tại, theo bảng
+    private final AtomicLong transactionProgress = new AtomicLong();
+
+    private final AtomicLong userProgress = new AtomicLong();
+
+    private final Timer chunkTimer;
+
+    public ReencryptionServiceImpl(TransactionHistoryRepository transactionHistoryRepository,
+                                   UsersRepository usersRepository,
+                                   ReencryptionCheckpointRepository checkpointRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   ServerKeyRing serverKeyRing,
+                                   KeyStorage keyStorage,
+                                   @Value("${hybrid.reencryption.chunk-size:500}") int chunkSize,
+                                   @Value("${hybrid.reencryption.parallelism:0}") int parallelism,
+                                   @Value("${hybrid.reencryption.max-rows-per-second:0}") int maxRowsPerSecond) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Re-encryption chunk size must be positive");
+        }
+        if (maxRowsPerSecond < 0) {
+            throw new IllegalArgumentException("Re-encryption rate limit must not be negative");
+        }
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.usersRepository = usersRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.serverKeyRing = serverKeyRing;
+        this.keyStorage = keyStorage;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        // Mặc định dùng một luồng cho mỗi nhân CPU, RSA và AES đều giới hạn bởi CPU
+        this.workers = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        this.chunkTimer = Timer.builder(MetricsConstant.REENCRYPTION_CHUNK)
+                .description("Time to re-encrypt and commit one chunk")
+                .register(Metrics.globalRegistry);
+        Gauge.builder(MetricsConstant.REENCRYPTION_PROGRESS, transactionProgress, AtomicLong::get)
+                .description("Rows processed by the current re-encryption run")
+                .tag(MetricsConstant.TAG_TABLE, CommonConstant.REENCRYPTION_JOB_TRANSACTIONS)
+                .register(Metrics.globalRegistry);
+        Gauge.builder(MetricsConstant.REENCRYPTION_PROGRESS, userProgress, AtomicLong::get)
+                .description("Rows processed by the current re-encryption run")
+                .tag(MetricsConstant.TAG_TABLE, CommonConstant.REENCRYPTION_JOB_USERS)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Re-wraps transaction data keys still wrapped with the previous server key and migrates legacy
+     * account ciphertext to AES-GCM.
+     *
+     * @param restart Whether to ignore the saved checkpoint and start from the first row.
+     * @return The number of rows processed by this run.
+     */
+    @Override
+    public long reencryptTransactions(boolean restart) {
+        return runJob(CommonConstant.REENCRYPTION_JOB_TRANSACTIONS, restart, transactionProgress,
+                afterId -> transactionHistoryRepository.findByIdGreaterThanOrderByIdAsc(afterId,
+                        PageRequest.of(0, chunkSize)),
+                TransactionHistoryEntity::getId,
+                this::reencryptTransaction);
+    }
+
+    /**
+     * Migrates legacy password and email ciphertext of users to AES-GCM.
+     *
+     * @param restart Whether to ignore the saved checkpoint and start from the first row.
+     * @return The number of rows processed by this run.
+     */
+    @Override
+    public long reencryptUsers(boolean restart) {
+        return runJob(CommonConstant.REENCRYPTION_JOB_USERS, restart, userProgress,
+                afterId -> usersRepository.findByAccountIdGreaterThanOrderByAccountIdAsc(afterId,
+                        PageRequest.of(0, chunkSize)),
+                UsersEntity::getAccountId,
+                this::reencryptUser);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Runs one job chunk by chunk from its checkpoint until no rows are left.
+     *
+     * @param jobName  The checkpoint key of the job.
+     * @param restart  Whether to reset the checkpoint first.
+     * @param progress The progress gauge of the job.
+     * @param loadPage Loads the next chunk after the given id, in id order.
+     * @param idOf     The id of a row.
+     * @param process  Re-encrypts one row in place, returns whether the row changed.
+     * @return The number of rows processed by this run.
+     */
+    private <T> long runJob(String jobName, boolean restart, AtomicLong progress, LongFunction<List<T>> loadPage,
+                            Function<T, Long> idOf, Function<T, Boolean> process) {
+
+        ReencryptionCheckpointEntity checkpoint = restart ? null : checkpointRepository.findById(jobName).orElse(null);
+        long lastId = checkpoint == null ? 0 : checkpoint.getLastId();
+        long totalBefore = checkpoint == null ? 0 : checkpoint.getProcessedRows();
+
+        Counter changed = resultCounter(jobName, MetricsConstant.RESULT_REENCRYPTED);
+        Counter unchanged = resultCounter(jobName, MetricsConstant.RESULT_UNCHANGED);
+        Counter failed = resultCounter(jobName, MetricsConstant.RESULT_FAILED);
+
+        progress.set(0);
+        long startNanos = System.nanoTime();
+        log.info("Re-encryption job {} starting after id {}", jobName, lastId);
+
+        int pageSize;
+        do {
+            final long afterId = lastId;
+            final long processedBefore = totalBefore + progress.get();
+            Timer.Sample sample = Timer.start();
+
+            ChunkResult result = transactionTemplate.execute(status -> {
+                List<T> page = loadPage.apply(afterId);
+                if (page.isEmpty()) {
+                    return new ChunkResult(0, afterId);
+                }
+
+                int[] outcomes = processInParallel(page, idOf, process);
+                changed.increment(outcomes[0]);
+                unchanged.increment(outcomes[1]);
+                failed.increment(outcomes[2]);
+
+                // Lưu checkpoint cùng transaction với dữ liệu để không bỏ sót hay xử lý lại bản ghi
+                long pageLastId = idOf.apply(page.get(page.size() - 1));
+                checkpointRepository.save(ReencryptionCheckpointEntity.builder()
+                        .jobName(jobName)
+                        .lastId(pageLastId)
+                        .processedRows(processedBefore + page.size())
+                        .updatedAt(LocalDateTime.now())
+                        .build());
+                return new ChunkResult(page.size(), pageLastId);
+            });
+            sample.stop(chunkTimer);
+
+            pageSize = result.rows();
+            lastId = result.lastId();
+            progress.addAndGet(pageSize);
+            throttle(startNanos, progress.get());
+        } while (pageSize == chunkSize);
+
+        log.info("Re-encryption job {} finished: {} rows, {} re-encrypted, {} failed, last id {}",
+                jobName, progress.get(), (long) changed.count(), (long) failed.count(), lastId);
+        return progress.get();
+    }
+
+    /**
+     * Processes the rows of a chunk on the worker pool. Rows are only modified in memory here,
+     * the changes are flushed by the calling transaction.
+     *
+     * @return The number of changed, unchanged and failed rows.
+     */
+    private <T> int[] processInParallel(List<T> page, Function<T, Long> idOf, Function<T, Boolean> process) {
+        try {
+            return workers.submit(() -> page.parallelStream()
+                    .map(row -> {
+                        try {
+                            return process.apply(row) ? 0 : 1;
+                        } catch (RuntimeException e) {
+                            // Mọi lỗi của một bản ghi chỉ được ghi nhận, job vẫn tiếp tục với các bản ghi khác
+                            log.warn("Cannot re-encrypt row {}", idOf.apply(row), e);
+                            return 2;
+                        }
+                    })
+                    .collect(() -> new int[3], (counts, outcome) -> counts[outcome]++,
+                            (left, right) -> {
+                                for (int i = 0; i < left.length; i++) {
+                                    left[i] += right[i];
+                                }
+                            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Re-encryption was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error re-encrypting chunk", e.getCause());
+        }
+    }
+
+    /**
+     * Re-encrypts one transaction row in place.
+     *
+     * @return Whether the row changed.
+     */
+    private boolean reencryptTransaction(TransactionHistoryEntity transaction) {
+        ServerKeyRing.UnwrappedKey dataKey = serverKeyRing.unwrapForRotation(transaction.getEncryptedAESKey());
+        boolean unmarked = !AesEnvelope.isEnvelopeVersion(transaction.getCipherVersion());
+
+        // Bản ghi chưa có cipher_version: xác định định dạng bằng cách giải mã, bản mã ECB được mã hóa lại
+        if (unmarked) {
+            transaction.setAccount(migrate(transaction.getAccount(), dataKey.key()));
+            transaction.setCipherVersion(AesEnvelope.VERSION_1);
+        }
+        // Bọc lại khóa AES bằng khóa công khai hiện tại, khóa AES và bản mã tài khoản giữ nguyên
+        if (dataKey.wrappedWithPreviousKey()) {
+            transaction.setEncryptedAESKey(
+                    EncryptionUtil.encryptAESKeyWithRSA(dataKey.key(), serverKeyRing.currentPublicKey()));
+        }
+        return unmarked || dataKey.wrappedWithPreviousKey();
+    }
+
+    /**
+     * Migrates the password and email of one user to AES-GCM and records the format of the row.
+     *
+     * @return Whether the row changed.
+     */
+    private boolean reencryptUser(UsersEntity user) {
+        if (AesEnvelope.isEnvelopeVersion(user.getCipherVersion())) {
+            return false;
+        }
+
+        PrivateKey privateKey = ExceptionHelper.executeWithExceptionHandling(
+                () -> UserKeyCache.getPrivateKey(keyStorage, user.getPrivateKeyPath()),
+                "Error loading user private key"
+        );
+        SecretKey aesKey = EncryptionUtil.decryptAESKeyWithRSA(user.getEncryptedAESKey(), privateKey);
+
+        user.setPassword(migrate(user.getPassword(), aesKey));
+        user.setEmail(migrate(user.getEmail(), aesKey));
+        user.setCipherVersion(AesEnvelope.VERSION_1);
+        return true;
+    }
+
+    /**
+     * Returns the envelope form of a ciphertext whose format was not recorded. Envelopes are returned as they are,
+     * legacy ECB ciphertexts, including those that start with the envelope magic byte, are sealed again.
+     */
+    private static byte[] migrate(byte[] ciphertext, SecretKey aesKey) {
+        AesEnvelope.Opened opened = AesEnvelope.openUnmarked(ciphertext, aesKey);
+        return opened.legacy() ? AesEnvelope.seal(opened.plaintext(), aesKey) : ciphertext;
+    }
+
+    /**
+     * Sleeps as long as needed to keep the average rate of the run under the configured limit.
+     */
+    private void throttle(long startNanos, long processed) {
+        if (maxRowsPerSecond == 0) {
+            return;
+        }
+        long targetNanos = TimeUnit.SECONDS.toNanos(processed) / maxRowsPerSecond;
+        long aheadNanos = targetNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Re-encryption was interrupted", e);
+        }
+    }
+
+    private static Counter resultCounter(String jobName, String result) {
+        return Counter.builder(MetricsConstant.REENCRYPTION_ROWS)
+                .description("Rows visited by the re-encryption job")
+                .tag(MetricsConstant.TAG_TABLE, jobName)
+                .tag(MetricsConstant.TAG_RESULT, result)
+                .register(Metrics.globalRegistry);
+    }
+
+    private record ChunkResult(int rows, long lastId) {
+    }
+}
@@ -1,48 +1,117 @@
 package com.example.demo.hybrid.service.iplm;
 
 import com.example.demo.hybrid.dto.DecryptedTransactionDTO;
+import com.example.demo.hybrid.dto.EncryptedTransactionDTO;
+import com.example.demo.hybrid.dto.TransactionAckDTO;
 import com.example.demo.hybrid.dto.TransactionDTO;
+import com.example.demo.hybrid.dto.TransactionEnvelopeDTO;
+import com.example.demo.hybrid.dto.TransactionPageDTO;
 import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.entity.UsersEntity;
 import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.exception.InvalidInputException;
+import com.example.demo.hybrid.repository.TransactionHistoryBatchRepository;
 import com.example.demo.hybrid.repository.TransactionHistoryRepository;
+import com.example.demo.hybrid.repository.TransactionWriteBehindQueue;
+import com.example.demo.hybrid.service.IAccountService;
 import com.example.demo.hybrid.service.ITransactionService;
+import com.example.demo.hybrid.until.constant.CommonConstant;
 import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.encryptions.AesEnvelope;
+import com.example.demo.hybrid.until.encryptions.BlindIndexer;
+import com.example.demo.hybrid.until.encryptions.CryptoExecutor;
+import com.example.demo.hybrid.until.encryptions.DataKeyCache;
 import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.encryptions.ServerKeyRing;
 import com.example.demo.hybrid.until.helper.EncryptionHelper;
 import com.example.demo.hybrid.until.helper.ExceptionHelper;
+import com.example.demo.hybrid.until.helper.TransactionCursor;
 import com.example.demo.hybrid.until.log.CustomLogger;
 import com.example.demo.hybrid.until.mapper.TransactionMapper;
 import com.example.demo.hybrid.until.validate.ValidationUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mysql.cj.log.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the ITransactionService interface to handle transaction-related operations.
  */
+@Slf4j
 @Service
 public class TransactionServiceImpl implements ITransactionService {
 
     @Autowired
     private TransactionHistoryRepository transactionHistoryRepository;
 
+    @Autowired
+    private TransactionHistoryBatchRepository transactionHistoryBatchRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BlindIndexer blindIndexer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CryptoExecutor cryptoExecutor;
+
+    @Autowired
+    private ServerKeyRing serverKeyRing;
+
+    @Autowired
+    private IAccountService accountService;
+
+    // Chỉ có khi bật hybrid.write-behind.enabled
+    @Autowired(required = false)
+    private TransactionWriteBehindQueue writeBehindQueue;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final byte[] NDJSON_LINE_SEPARATOR = {'\n'};
+
     private final PublicKey publicKey;
     private final PrivateKey privateKey;
 
+    // Giải mã các dòng export song song với việc đọc cursor, không dùng chung pool của MVC để tránh deadlock
+    private final ForkJoinPool exportWorkers;
+
     /**
      * Constructs a TransactionServiceImpl with the public and private keys.
      *
+     * @param exportParallelism The number of threads decrypting exports, 0 for one per CPU core.
      * @throws Exception If there is an error loading the keys.
      */
-    public TransactionServiceImpl() throws Exception {
+    public TransactionServiceImpl(@Value("${hybrid.export.parallelism:0}") int exportParallelism) throws Exception {
+        this.exportWorkers = new ForkJoinPool(
+                exportParallelism > 0 ? exportParallelism : Runtime.getRuntime().availableProcessors());
+
         this.publicKey = ExceptionHelper.executeWithExceptionHandling(
                 () -> new EncryptionUtil().loadPublicKey(EncryptionConstant.PUBLIC_KEY_PATH),
                 "Error loading public key from file"
@@ -54,6 +123,11 @@ public class TransactionServiceImpl implements ITransactionService {
         );
     }
 
+    @PreDestroy
+    public void stop() {
+        exportWorkers.shutdownNow();
+    }
+
     /**
      * Saves a transaction record after decrypting and encrypting necessary data.
      *
@@ -68,44 +142,112 @@ public class TransactionServiceImpl implements ITransactionService {
     public void saveTransaction(String encryptedTransactionId, String encryptedSourceAccount,
                                 String encryptedDestinationAccount, String amount, String encryptedTime) {
 
-        // Kiểm tra hợp lệ các tham số đầu vào
-        ValidationUtils.validateObject(encryptedSourceAccount);
-        ValidationUtils.validateObject(encryptedDestinationAccount);
-        ValidationUtils.validateString(amount);
-        ValidationUtils.validateString(encryptedTime);
+        List<TransactionHistoryEntity> records = prepareTransactionRecords(encryptedTransactionId,
+                encryptedSourceAccount, encryptedDestinationAccount, amount, encryptedTime);
 
+        //Tiến hành lưu giao dịch
+        persistTransactionRecords(records);
+    }
 
-        // giải mã dữu liệu
-        DecryptedTransactionDTO decryptedData =  decryptTransactionData(encryptedTransactionId, encryptedSourceAccount,
-                        encryptedDestinationAccount, amount, encryptedTime, privateKey);
+    /**
+     * Saves a transaction sent as a hybrid envelope. Only the session key is RSA encrypted, so this costs
+     * one RSA decryption instead of the five of the field-by-field format.
+     *
+     * @param envelope The RSA wrapped session key and the AES-GCM encrypted transaction fields.
+     * @throws IllegalArgumentException If the envelope is incomplete or its fields are invalid.
+     * @throws EncryptionException      If the key cannot be unwrapped or the payload fails authentication.
+     */
+    @Override
+    public void saveTransaction(TransactionEnvelopeDTO envelope) {
 
-        Long parsedAmount = parseAmount(String.valueOf(decryptedData.getAmount()));
+        persistTransactionRecords(buildTransactionRecords(decryptEnvelope(envelope)));
+    }
 
-        if (Objects.isNull(parsedAmount)) {
-            throw new IllegalArgumentException("Amount must be a valid number");
+    /**
+     * Queues a transaction sent as a hybrid envelope for a write-behind group commit.
+     * When write-behind mode is disabled the records are written synchronously and the ack id is 0.
+     *
+     * @param envelope The RSA wrapped session key and the AES-GCM encrypted transaction fields.
+     * @return A future completed with the ack once the records are committed.
+     * @throws com.example.demo.hybrid.exception.QueueFullException If the queue stays full.
+     */
+    @Override
+    public CompletableFuture<TransactionAckDTO> submitTransaction(TransactionEnvelopeDTO envelope) {
+
+        List<TransactionHistoryEntity> records = buildTransactionRecords(decryptEnvelope(envelope));
+        if (Objects.isNull(writeBehindQueue)) {
+            persistTransactionRecords(records);
+            return CompletableFuture.completedFuture(TransactionAckDTO.builder()
+                    .savedRecords(records.size())
+                    .build());
         }
 
-        // tạo khóa aes
-        SecretKey aesKey = EncryptionHelper.generateAESKey();
+        return writeBehindQueue.submit(records)
+                .thenApply(ackId -> TransactionAckDTO.builder()
+                        .ackId(ackId)
+                        .savedRecords(records.size())
+                        .build());
+    }
 
-        // ma hoa key aes key bang rsa
-        byte[] encryptedAESKey = EncryptionHelper.encryptAESKeyWithRSA(aesKey, publicKey);
+    /**
+     * Unwraps the session key of an envelope and decrypts its transaction fields.
+     *
+     * @param envelope The RSA wrapped session key and the AES-GCM encrypted transaction fields.
+     * @return The plain transaction data.
+     */
+    private DecryptedTransactionDTO decryptEnvelope(TransactionEnvelopeDTO envelope) {
 
-        // mã hóa tài khoản
-        byte[] aesEncryptedSourceAccount = EncryptionHelper.encryptWithAES(decryptedData.getSourceAccount(), aesKey);
+        ValidationUtils.validateObject(envelope);
+        byte[] encryptedKey = ValidationUtils.decodeCiphertext(envelope.getEncryptedKey()).bytes();
+        byte[] payload = ValidationUtils.decodeCiphertext(envelope.getPayload()).bytes();
 
-        byte[] aesEncryptedDestinationAccount =
-                EncryptionHelper.encryptWithAES(decryptedData.getDestinationAccount(), aesKey);
+        // Khóa phiên do client chọn nên không đưa vào DataKeyCache dùng chung với khóa dữ liệu của server
+        byte[] json = cryptoExecutor.call(() -> EncryptionHelper.openEnvelope(encryptedKey, payload, privateKey));
 
-        //Tiến hành lưu giao dịch
+        DecryptedTransactionDTO decryptedData = ExceptionHelper.executeWithExceptionHandling(
+                () -> objectMapper.readValue(json, DecryptedTransactionDTO.class),
+                "Error reading transaction envelope payload"
+        );
+        ValidationUtils.validateString(decryptedData.getTransactionId());
+        ValidationUtils.validateString(decryptedData.getSourceAccount());
+        ValidationUtils.validateString(decryptedData.getDestinationAccount());
+        ValidationUtils.validateString(decryptedData.getTime());
+        return decryptedData;
+    }
 
-        saveTransactionRecord(decryptedData.getTransactionId(), aesEncryptedSourceAccount,0L,decryptedData.getAmount(),
-                    decryptedData.getTime(), encryptedAESKey);
+    /**
+     * Saves a batch of encrypted transactions in a single database transaction.
+     * Decryption and re-encryption run in parallel before the transaction is opened, so the connection
+     * is only held for the JDBC batch inserts.
+     *
+     * @param transactions The RSA encrypted transactions to save.
+     * @return The number of transaction history rows written.
+     * @throws IllegalArgumentException If the batch is empty, too large, or any transaction is null or invalid.
+     */
+    @Override
+    public int saveTransactions(List<EncryptedTransactionDTO> transactions) {
 
-        saveTransactionRecord(decryptedData.getTransactionId(), aesEncryptedDestinationAccount, decryptedData.getAmount()
-                    ,0L, decryptedData.getTime(), encryptedAESKey);
+        ValidationUtils.validateObject(transactions);
+        if (transactions.size() > CommonConstant.MAX_TRANSACTION_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch must not contain more than "
+                    + CommonConstant.MAX_TRANSACTION_BATCH_SIZE + " transactions");
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            if (Objects.isNull(transactions.get(i))) {
+                throw new IllegalArgumentException("Transaction at index " + i + " must not be null");
+            }
+        }
 
+        // Giải mã và mã hóa song song, mỗi giao dịch tạo ra hai bản ghi
+        List<TransactionHistoryEntity> records = transactions.parallelStream()
+                .map(transaction -> prepareTransactionRecords(transaction.getEncryptedTransactionId(),
+                        transaction.getEncryptedSourceAccount(), transaction.getEncryptedDestinationAccount(),
+                        transaction.getEncryptedAmount(), transaction.getEncryptedTime()))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
 
+        // Chỉ mở transaction khi ghi, không giữ kết nối trong lúc giải mã
+        return transactionTemplate.execute(status -> transactionHistoryBatchRepository.insertAll(records));
     }
 
     @Override
@@ -119,52 +261,418 @@ public class TransactionServiceImpl implements ITransactionService {
                 transactionHistoryRepository.findAllByTransactionId(encryptedTransactionId);
 
         // Dùng stream để xử lý danh sách giao dịch và chuyển đổi thành danh sách DTO
-        return transactions.stream()
-                .map(transaction -> {
-                    // Giải mã khóa AES với RSA
-                    byte[] encryptedAESKey = Base64.getDecoder().decode(transaction.getEncryptedAESKey());
-                    SecretKey aesKey = EncryptionUtil.decryptAESKeyWithRSA(encryptedAESKey, privateKey);
+        return accountService.requireOwnedLegs(transactions, publicKeyContent).stream()
+                .map(this::decryptTransaction)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the legs of a transaction whose id is sent RSA encrypted, through its blind index.
+     * Only the legs of accounts owned by the caller are returned.
+     *
+     * @param encryptedTransactionId The RSA encrypted transaction id.
+     * @param publicKeyContent       The Base64 encoded public key of the caller.
+     * @return The decrypted transaction legs.
+     * @throws EncryptionException If the key is not registered or the caller owns none of the legs.
+     */
+    @Override
+    public List<TransactionDTO> getTransactionByEncryptedId(String encryptedTransactionId, String publicKeyContent) {
+
+        ValidationUtils.validateString(encryptedTransactionId);
+        ValidationUtils.validateString(publicKeyContent);
+
+        // Giải mã mã giao dịch và tìm theo blind index thay vì so sánh giá trị mã hóa
+        String transactionId = cryptoExecutor.call(
+                () -> EncryptionUtil.decryptDataWithRSA(encryptedTransactionId, privateKey));
+        List<TransactionHistoryEntity> transactions = transactionHistoryRepository.findAllByTransactionIdIndex(
+                blindIndexer.index(EncryptionConstant.BLIND_INDEX_TRANSACTION_ID, transactionId));
+
+        return accountService.requireOwnedLegs(transactions, publicKeyContent).stream()
+                .map(this::decryptTransaction)
+                .collect(Collectors.toList());
+    }
 
+    /**
+     * Finds all transaction legs of an account owned by the caller, through its blind index.
+     *
+     * @param encryptedAccount The RSA encrypted account number.
+     * @param publicKeyContent The Base64 encoded public key of the caller.
+     * @return The decrypted transactions of the account.
+     * @throws EncryptionException If the key is not registered or the caller does not own the account.
+     */
+    @Override
+    public List<TransactionDTO> getTransactionsByAccount(String encryptedAccount, String publicKeyContent) {
 
-                    // Giải mã dữ liệu nhạy cảm với AES
-                    byte[] decryptedAccount = EncryptionUtil.decryptDataWithAES(
-                            Base64.getDecoder().decode(transaction.getAccount()), aesKey);
+        ValidationUtils.validateString(encryptedAccount);
+        ValidationUtils.validateString(publicKeyContent);
 
-                    // Cập nhật đối tượng giao dịch đã giải mã
-                    transaction.setAccount(new String(decryptedAccount, StandardCharsets.UTF_8));
+        String account = cryptoExecutor.call(() -> EncryptionUtil.decryptDataWithRSA(encryptedAccount, privateKey));
+        // Chỉ chủ tài khoản mới đọc được giao dịch của tài khoản
+        List<TransactionHistoryEntity> transactions = transactionHistoryRepository.findAllByAccountIndex(
+                accountService.requireOwnedAccountIndex(account, publicKeyContent));
 
-                    // Chuyển đổi đối tượng TransactionHistoryEntity thành TransactionDTO
-                    return TransactionMapper.convertToDTO(transaction);
-                })
+        return transactions.stream()
+                .map(this::decryptTransaction)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns one page of an account's transactions in a date range, newest first.
+     * <p>
+     * Pages are read with keyset pagination on {@code (time, id)} through the account's blind index, and only
+     * the rows of the requested page are decrypted, so a deep page costs the same as the first one.
+     *
+     * @param encryptedAccount The RSA encrypted account number.
+     * @param from             The first day of the range, inclusive.
+     * @param to               The last day of the range, inclusive.
+     * @param cursor           The cursor returned with the previous page, or null for the first page.
+     * @param size             The maximum number of transactions in the page.
+     * @param publicKeyContent The Base64 encoded public key of the caller.
+     * @return The page and the cursor of the next page, null if there is none.
+     * @throws IllegalArgumentException If a parameter or the cursor is invalid.
+     * @throws EncryptionException      If the key is not registered or the caller does not own the account.
+     */
+    @Override
+    public TransactionPageDTO getTransactionHistory(String encryptedAccount, LocalDate from, LocalDate to,
+                                                    String cursor, int size, String publicKeyContent) {
+
+        ValidationUtils.validateString(encryptedAccount);
+        ValidationUtils.validateObject(from);
+        ValidationUtils.validateObject(to);
+        ValidationUtils.validateString(publicKeyContent);
+        if (size <= 0 || size > CommonConstant.MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Page size must be between 1 and " + CommonConstant.MAX_PAGE_SIZE);
+        }
+        if (from.isAfter(to)) {
+            throw new InvalidInputException("Start date must not be after end date");
+        }
+
+        String account = cryptoExecutor.call(() -> EncryptionUtil.decryptDataWithRSA(encryptedAccount, privateKey));
+        // Chỉ chủ tài khoản mới đọc được lịch sử giao dịch
+        String accountIndex = accountService.requireOwnedAccountIndex(account, publicKeyContent);
+
+        // Lấy thêm một bản ghi để biết còn trang tiếp theo hay không
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<TransactionHistoryEntity> rows;
+        if (Objects.isNull(cursor) || cursor.isEmpty()) {
+            rows = transactionHistoryRepository.findHistoryFirstPage(accountIndex, from, to, limit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = transactionHistoryRepository.findHistoryPageAfter(accountIndex, from, to,
+                    position.time(), position.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<TransactionHistoryEntity> page = hasNext ? rows.subList(0, size) : rows;
+
+        return TransactionPageDTO.builder()
+                .transactions(page.stream()
+                        .map(this::decryptTransaction)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasNext ? TransactionCursor.after(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
 
     /**
-     * Saves a transaction record to the database.
+     * Computes blind indexes for rows written before the index columns existed.
+     * Rows are processed in id order, one page per database transaction.
+     *
+     * @return The number of rows indexed.
+     */
+    @Override
+    public long backfillBlindIndexes() {
+        long indexed = 0;
+        long lastId = 0;
+        List<TransactionHistoryEntity> page;
+        do {
+            final long afterId = lastId;
+            page = transactionTemplate.execute(status -> indexPage(afterId));
+            if (page.isEmpty()) {
+                break;
+            }
+            indexed += page.size();
+            lastId = page.get(page.size() - 1).getId();
+        } while (page.size() == CommonConstant.BACKFILL_PAGE_SIZE);
+
+        log.info("Backfilled blind indexes for {} transactions", indexed);
+        return indexed;
+    }
+
+    /**
+     * Streams the caller's transactions in the given date range as NDJSON, one decrypted {@link TransactionDTO} per line.
+     * <p>
+     * The caller is identified by the fingerprint of their public key, and only the rows of the accounts linked to
+     * them are read. Rows are streamed through a database cursor and detached right away. Each row is decrypted on
+     * the export workers while the calling thread keeps reading the cursor, and lines are written in cursor order
+     * on the calling thread. At most {@link CommonConstant#EXPORT_PIPELINE_DEPTH} rows are in flight, so memory
+     * stays flat regardless of the result size.
+     *
+     * @param from             The first day of the range, inclusive.
+     * @param to               The last day of the range, inclusive.
+     * @param publicKeyContent The Base64 encoded public key of the caller.
+     * @param outputStream     The stream to write NDJSON lines to.
+     * @throws EncryptionException If the public key is not registered to any account.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTransactions(LocalDate from, LocalDate to, String publicKeyContent,
+                                   OutputStream outputStream) {
+
+        ValidationUtils.validateObject(from);
+        ValidationUtils.validateObject(to);
+
+        UsersEntity caller = accountService.resolveCaller(publicKeyContent);
+        List<String> accountIndexes = accountService.ownedAccountIndexes(caller);
+        if (accountIndexes.isEmpty()) {
+            log.info("User {} has no linked account to export", caller.getAccountId());
+            return;
+        }
+
+        long exported = 0;
+        Deque<CompletableFuture<TransactionDTO>> pending = new ArrayDeque<>(CommonConstant.EXPORT_PIPELINE_DEPTH);
+        try (Stream<TransactionHistoryEntity> transactions = transactionHistoryRepository
+                .streamAllByAccountIndexInAndTimeBetweenOrderByIdAsc(accountIndexes, from, to)) {
+
+            Iterator<TransactionHistoryEntity> cursor = transactions.iterator();
+            while (cursor.hasNext()) {
+                TransactionHistoryEntity transaction = cursor.next();
+                // Tách khỏi persistence context để không giữ lại các bản ghi đã đọc
+                entityManager.detach(transaction);
+                // Giải mã trên luồng khác trong khi luồng này tiếp tục đọc cursor
+                pending.add(CompletableFuture.supplyAsync(() -> decryptTransaction(transaction), exportWorkers));
+
+                if (pending.size() == CommonConstant.EXPORT_PIPELINE_DEPTH) {
+                    writeExportLine(pending.poll(), outputStream, ++exported);
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeExportLine(pending.poll(), outputStream, ++exported);
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Error exporting transactions", e);
+        } finally {
+            // Client ngắt kết nối hoặc lỗi giữa chừng: bỏ các dòng chưa giải mã xong
+            pending.forEach(decrypted -> decrypted.cancel(false));
+        }
+        log.info("Exported {} transactions of user {} between {} and {}", exported, caller.getAccountId(), from, to);
+    }
+
+    /**
+     * Waits for the next decrypted row of an export and writes it as one NDJSON line.
+     *
+     * @param decrypted    The decryption of the row, in cursor order.
+     * @param outputStream The stream to write to.
+     * @param line         The number of the line, starting at 1.
+     */
+    private void writeExportLine(CompletableFuture<TransactionDTO> decrypted, OutputStream outputStream, long line)
+            throws IOException {
+        TransactionDTO transaction;
+        try {
+            transaction = decrypted.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Error decrypting exported transaction", e.getCause());
+        }
+        outputStream.write(objectMapper.writeValueAsBytes(transaction));
+        outputStream.write(NDJSON_LINE_SEPARATOR);
+
+        // Đẩy dữ liệu sớm để client nhận được byte đầu tiên ngay
+        if (line % CommonConstant.EXPORT_FLUSH_INTERVAL == 1) {
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Decrypts an RSA encrypted transaction and builds its two encrypted history records,
+     * one debiting the source account and one crediting the destination account.
+     *
+     * @param encryptedTransactionId      The encrypted transaction ID.
+     * @param encryptedSourceAccount      The encrypted source account.
+     * @param encryptedDestinationAccount The encrypted destination account.
+     * @param amount                      The encrypted amount involved in the transaction.
+     * @param encryptedTime               The encrypted time of the transaction.
+     * @return The debit and credit records, not yet persisted.
+     */
+    private List<TransactionHistoryEntity> prepareTransactionRecords(String encryptedTransactionId,
+                                                                     String encryptedSourceAccount,
+                                                                     String encryptedDestinationAccount,
+                                                                     String amount, String encryptedTime) {
+
+        // Kiểm tra hợp lệ các tham số đầu vào
+        ValidationUtils.validateObject(encryptedSourceAccount);
+        ValidationUtils.validateObject(encryptedDestinationAccount);
+        ValidationUtils.validateString(amount);
+        ValidationUtils.validateString(encryptedTime);
+
+
+        // giải mã dữu liệu
+        DecryptedTransactionDTO decryptedData = cryptoExecutor.call(() -> decryptTransactionData(encryptedTransactionId,
+                encryptedSourceAccount, encryptedDestinationAccount, amount, encryptedTime, privateKey));
+
+        Long parsedAmount = parseAmount(String.valueOf(decryptedData.getAmount()));
+
+        if (Objects.isNull(parsedAmount)) {
+            throw new IllegalArgumentException("Amount must be a valid number");
+        }
+
+        return buildTransactionRecords(decryptedData);
+    }
+
+    /**
+     * Encrypts decrypted transaction data under a fresh AES key and builds its debit and credit records.
+     *
+     * @param decryptedData The plain transaction data.
+     * @return The debit and credit records, not yet persisted.
+     */
+    private List<TransactionHistoryEntity> buildTransactionRecords(DecryptedTransactionDTO decryptedData) {
+
+        // tạo khóa aes
+        SecretKey aesKey = EncryptionHelper.generateAESKey();
+
+        // ma hoa key aes key bang rsa
+        byte[] encryptedAESKey = EncryptionHelper.encryptAESKeyWithRSA(aesKey, publicKey);
+        DataKeyCache.put(encryptedAESKey, aesKey);
+
+        // mã hóa tài khoản
+        byte[] aesEncryptedSourceAccount = EncryptionHelper.encryptWithAES(decryptedData.getSourceAccount(), aesKey);
+
+        byte[] aesEncryptedDestinationAccount =
+                EncryptionHelper.encryptWithAES(decryptedData.getDestinationAccount(), aesKey);
+
+        String transactionIdIndex =
+                blindIndexer.index(EncryptionConstant.BLIND_INDEX_TRANSACTION_ID, decryptedData.getTransactionId());
+
+        TransactionHistoryEntity debit = buildTransactionRecord(decryptedData.getTransactionId(),
+                aesEncryptedSourceAccount, 0L, decryptedData.getAmount(), decryptedData.getTime(), encryptedAESKey);
+        debit.setTransactionIdIndex(transactionIdIndex);
+        debit.setAccountIndex(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT,
+                decryptedData.getSourceAccount()));
+
+        TransactionHistoryEntity credit = buildTransactionRecord(decryptedData.getTransactionId(),
+                aesEncryptedDestinationAccount, decryptedData.getAmount(), 0L, decryptedData.getTime(),
+                encryptedAESKey);
+        credit.setTransactionIdIndex(transactionIdIndex);
+        credit.setAccountIndex(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT,
+                decryptedData.getDestinationAccount()));
+
+        return List.of(debit, credit);
+    }
+
+    /**
+     * Builds a transaction record.
      *
      * @param transactionId    The transaction ID.
      * @param encryptedAccount The encrypted account information.
-     * @param inDebt           The inDebt of the transaction.
      * @param have             The have of the transaction.
+     * @param inDebt           The inDebt of the transaction.
      * @param time             The time of the transaction.
+     * @param aesKey           The RSA encrypted AES key of the transaction.
+     * @return The transaction record, not yet persisted.
      */
-    private void saveTransactionRecord(String transactionId, byte[] encryptedAccount,
-                                       Long have,Long inDebt, String time, byte[] aesKey) {
+    private TransactionHistoryEntity buildTransactionRecord(String transactionId, byte[] encryptedAccount,
+                                                            Long have, Long inDebt, String time, byte[] aesKey) {
         TransactionHistoryEntity transaction = new TransactionHistoryEntity();
         transaction.setTransactionId(transactionId);
-        transaction.setAccount(Base64.getEncoder().encodeToString(encryptedAccount));
+        transaction.setAccount(encryptedAccount);
 
         transaction.setInDebt(inDebt);
         transaction.setHave(have);
 
         transaction.setTime(LocalDate.parse(time));
-        transaction.setEncryptedAESKey(Base64.getEncoder().encodeToString(aesKey));
+        transaction.setEncryptedAESKey(aesKey);
+        transaction.setCipherVersion(AesEnvelope.VERSION_1);
+        return transaction;
+    }
+
+    /**
+     * Persists the records of one transaction, through the write-behind queue when it is enabled.
+     * The caller waits until the records are committed in either mode.
+     *
+     * @param records The records of one transaction.
+     */
+    private void persistTransactionRecords(List<TransactionHistoryEntity> records) {
+        if (Objects.isNull(writeBehindQueue)) {
+            records.forEach(this::saveTransactionRecord);
+            return;
+        }
+
+        try {
+            writeBehindQueue.submit(records).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Error persisting transaction", e.getCause());
+        }
+    }
+
+    /**
+     * Saves a transaction record to the database.
+     *
+     * @param transaction The transaction record to save.
+     */
+    private void saveTransactionRecord(TransactionHistoryEntity transaction) {
         try{
             transactionHistoryRepository.save(transaction);
         }catch (IllegalArgumentException e){
-              new IllegalArgumentException("transaction must not null",e);
+            throw new IllegalArgumentException("transaction must not null",e);
+        }
+    }
+
+    /**
+     * Decrypts the account of a transaction record and converts it to a DTO.
+     *
+     * @param transaction The transaction record with an AES encrypted account.
+     * @return The decrypted transaction.
+     */
+    private TransactionDTO decryptTransaction(TransactionHistoryEntity transaction) {
+        // Chuyển đổi đối tượng TransactionHistoryEntity thành TransactionDTO với tài khoản đã giải mã
+        return TransactionMapper.convertToDTO(transaction, decryptAccount(transaction));
+    }
+
+    /**
+     * Decrypts the account of a transaction record without modifying the record.
+     *
+     * @param transaction The transaction record with an AES encrypted account.
+     * @return The plain account number.
+     */
+    private String decryptAccount(TransactionHistoryEntity transaction) {
+        // Giải mã khóa AES với RSA (dùng cache, thử cả khóa cũ khi đang xoay vòng khóa server)
+        SecretKey aesKey = serverKeyRing.unwrap(transaction.getEncryptedAESKey());
+
+        // Giải mã dữ liệu nhạy cảm với AES
+        byte[] decryptedAccount = EncryptionUtil.decryptDataWithAES(transaction.getAccount(), aesKey,
+                transaction.getCipherVersion());
+        return new String(decryptedAccount, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Computes the blind indexes of the next page of unindexed rows. Must run inside a transaction,
+     * the changes are flushed on commit.
+     *
+     * @param afterId The last id processed by the previous page.
+     * @return The rows of the page.
+     */
+    private List<TransactionHistoryEntity> indexPage(long afterId) {
+        List<TransactionHistoryEntity> page = transactionHistoryRepository
+                .findByAccountIndexIsNullAndIdGreaterThanOrderByIdAsc(afterId,
+                        PageRequest.of(0, CommonConstant.BACKFILL_PAGE_SIZE));
+
+        for (TransactionHistoryEntity transaction : page) {
+            try {
+                transaction.setTransactionIdIndex(blindIndexer.index(EncryptionConstant.BLIND_INDEX_TRANSACTION_ID,
+                        transaction.getTransactionId()));
+                transaction.setAccountIndex(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT,
+                        decryptAccount(transaction)));
+            } catch (EncryptionException | IllegalArgumentException e) {
+                // Bỏ qua bản ghi không giải mã được, các bản ghi khác vẫn được đánh index
+                log.warn("Cannot compute blind index for transaction {}", transaction.getId(), e);
+            }
         }
+        return page;
     }
 
     /**
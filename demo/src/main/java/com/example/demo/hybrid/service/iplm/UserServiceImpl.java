@@ -1,25 +1,63 @@
 package com.example.demo.hybrid.service.iplm;
 
+import com.example.demo.hybrid.dto.UserBulkErrorDTO;
+import com.example.demo.hybrid.dto.UserBulkResultDTO;
+import com.example.demo.hybrid.dto.UserDTO;
 import com.example.demo.hybrid.entity.UsersEntity;
 import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.exception.InvalidInputException;
+import com.example.demo.hybrid.repository.UsersBatchRepository;
 import com.example.demo.hybrid.repository.UsersRepository;
 import com.example.demo.hybrid.service.IUserService;
+import com.example.demo.hybrid.until.constant.CommonConstant;
 import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.constant.MetricsConstant;
+import com.example.demo.hybrid.until.encryptions.AesEnvelope;
+import com.example.demo.hybrid.until.encryptions.CryptoExecutor;
 import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.encryptions.HashUtils;
+import com.example.demo.hybrid.until.encryptions.KeyPairGeneratorUtil;
+import com.example.demo.hybrid.until.encryptions.KeyPairPool;
+import com.example.demo.hybrid.until.encryptions.UserKeyCache;
 import com.example.demo.hybrid.until.helper.EncryptionHelper;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import com.example.demo.hybrid.until.mapper.UserMapper;
 import com.example.demo.hybrid.until.validate.ValidationUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.PublicKey;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Implementation of the IUserService interface.
@@ -29,35 +67,152 @@ import java.util.Objects;
 @Slf4j
 public class UserServiceImpl implements IUserService {
 
-    @Autowired
-    private UsersRepository usersRepository;
+    private final UsersRepository usersRepository;
+
+    private final KeyPairPool keyPairPool;
+
+    private final CryptoExecutor cryptoExecutor;
+
+    private final KeyStorage keyStorage;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final UsersBatchRepository usersBatchRepository;
 
     private EncryptionUtil encryptionUtil = new EncryptionUtil();
 
+    private final ForkJoinPool workers;
+
+    private final Counter savedUsers;
+
+    private final Counter failedUsers;
+
+    public UserServiceImpl(UsersRepository usersRepository,
+                           KeyPairPool keyPairPool,
+                           CryptoExecutor cryptoExecutor,
+                           KeyStorage keyStorage,
+                           EntityManagerFactory entityManagerFactory,
+                           TransactionTemplate transactionTemplate,
+                           UsersBatchRepository usersBatchRepository,
+                           @Value("${hybrid.user-bulk.parallelism:0}") int parallelism) {
+        this.usersRepository = usersRepository;
+        this.keyPairPool = keyPairPool;
+        this.cryptoExecutor = cryptoExecutor;
+        this.keyStorage = keyStorage;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = transactionTemplate;
+        this.usersBatchRepository = usersBatchRepository;
+        // Mặc định dùng một luồng cho mỗi nhân CPU, sinh khóa RSA và mã hóa đều giới hạn bởi CPU
+        this.workers = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.savedUsers = bulkCounter(MetricsConstant.OUTCOME_SUCCESS);
+        this.failedUsers = bulkCounter(MetricsConstant.OUTCOME_FAILURE);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
     /**
-     * Saves a user entity by encrypting sensitive data and storing it along with public and private key paths.
+     * Saves a user by encrypting sensitive data and storing it along with public and private key paths.
      *
-     * @param user The user entity to be saved.
-     * @return The saved user entity.
-     * @throws Exception If the user is null or any encryption/decryption operation fails.
+     * @param user The user to be saved, with plain password and email.
+     * @return The saved user, with Base64 encoded ciphertexts.
+     * @throws Exception If the user is null, a value is too long, or any encryption operation fails.
      */
     @Override
-    public UsersEntity saveUser(UsersEntity user) throws Exception {
+    public UserDTO saveUser(UserDTO user) throws Exception {
         if (Objects.isNull(user)) {
             throw new IllegalArgumentException("User must not be null");
         }
 
+        UsersEntity entity = encryptUser(user);
+        // Email đã đăng ký dùng lại cặp khóa đã lưu, fingerprint trùng nghĩa là người dùng đã tồn tại
+        if (!usersRepository.findPublicKeyFingerprintsIn(List.of(entity.getPublicKeyFingerprint())).isEmpty()) {
+            throw new InvalidInputException("User already exists");
+        }
+        UsersEntity savedUser = usersRepository.save(entity);
+
+        // Xóa bản ghi khỏi second-level cache để lần đọc sau lấy dữ liệu mới từ database
+        entityManagerFactory.getCache().evict(UsersEntity.class, savedUser.getAccountId());
+        return UserMapper.convertToDTO(savedUser);
+    }
+
+    /**
+     * Saves many users at once, for tenant migrations. Key generation and encryption run in parallel on a
+     * work-stealing pool, and users are inserted in JDBC batches of {@link CommonConstant#JDBC_BATCH_SIZE},
+     * one database transaction per batch.
+     * <p>
+     * A user that cannot be saved is reported with its index and the other users are still saved: when a batch
+     * insert fails, its users are inserted again one by one. Users that are already saved, e.g. because the client
+     * retried the request, are reported instead of being inserted twice. Progress and throughput are logged after
+     * each batch.
+     *
+     * @param users The users to save, with plain password and email.
+     * @return The number of saved users and the errors of the others.
+     * @throws IllegalArgumentException If the list is empty or too large.
+     */
+    @Override
+    public UserBulkResultDTO saveUsers(List<UserDTO> users) {
+
+        ValidationUtils.validateObject(users);
+        if (users.size() > CommonConstant.MAX_USER_BATCH_SIZE) {
+            throw new InvalidInputException("Batch must not contain more than "
+                    + CommonConstant.MAX_USER_BATCH_SIZE + " users");
+        }
+
+        // Lỗi theo vị trí trong danh sách, được ghi từ nhiều luồng
+        Map<Integer, String> errors = new ConcurrentSkipListMap<>();
+        rejectInvalidUsers(users, errors);
+
+        int saved = 0;
+        long startNanos = System.nanoTime();
+        for (int from = 0; from < users.size(); from += CommonConstant.JDBC_BATCH_SIZE) {
+            int to = Math.min(from + CommonConstant.JDBC_BATCH_SIZE, users.size());
+            saved += saveUserChunk(users, from, to, errors);
+
+            double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            log.info("Bulk user import: {}/{} processed, {} saved, {} failed, {} users/s",
+                    to, users.size(), saved, errors.size(), Math.round(to / seconds));
+        }
+
+        failedUsers.increment(errors.size());
+        return UserBulkResultDTO.builder()
+                .users(users.size())
+                .savedUsers(saved)
+                .errors(errors.entrySet().stream()
+                        .map(error -> UserBulkErrorDTO.builder()
+                                .index(error.getKey())
+                                .message(error.getValue())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Generates the key pair of a user if needed and builds the entity to store: encrypted password and email,
+     * key paths and public key fingerprint.
+     *
+     * @param user The user with plain password and email.
+     * @return The entity holding the ciphertexts.
+     * @throws InvalidInputException If an encrypted value does not fit in its column.
+     * @throws Exception             If any encryption operation fails.
+     */
+    private UsersEntity encryptUser(UserDTO user) throws Exception {
+
         // Define paths for user's keys
         String publicKeyPath = encryptionUtil.generateKeyPath(user.getEmail(), EncryptionConstant.PUBLIC_KEY);
         String privateKeyPath = encryptionUtil.generateKeyPath(user.getEmail(), EncryptionConstant.PRIVATE_KEY);
 
         // Generate and save key pair if not exists
-        if (!Files.exists(Paths.get(publicKeyPath)) || !Files.exists(Paths.get(privateKeyPath))) {
-            EncryptionHelper.generateAndSaveKeyPair(publicKeyPath, privateKeyPath);
+        if (!keyStorage.exists(publicKeyPath) || !keyStorage.exists(privateKeyPath)) {
+            EncryptionHelper.saveKeyPair(keyStorage, keyPairPool.take(), publicKeyPath, privateKeyPath);
         }
 
         // Load user's public key
-        PublicKey publicKey = encryptionUtil.loadPublicKey(publicKeyPath);
+        PublicKey publicKey = UserKeyCache.getPublicKey(keyStorage, publicKeyPath);
 
         // Generate random AES key
         SecretKey aesKey = EncryptionHelper.generateAESKey();
@@ -69,27 +224,201 @@ public class UserServiceImpl implements IUserService {
         // Encrypt AES key with RSA
         byte[] encryptedAESKey = encryptionUtil.encryptAESKeyWithRSA(aesKey, publicKey);
 
+        // Kiểm tra trước khi ghi để giá trị quá dài nhận lỗi rõ ràng thay vì lỗi cắt dữ liệu của database
+        ValidationUtils.validateLength("Password", encryptedPassword, CommonConstant.VARBINARY_512_LENGTH);
+        ValidationUtils.validateLength("Email", encryptedEmail, CommonConstant.VARBINARY_512_LENGTH);
+        ValidationUtils.validateLength("Encrypted AES key", encryptedAESKey, CommonConstant.VARBINARY_512_LENGTH);
+
         // Save encrypted data and key paths
-        user.setPassword(Base64.getEncoder().encodeToString(encryptedPassword));
-        user.setEmail(Base64.getEncoder().encodeToString(encryptedEmail));
-        user.setEncryptedAESKey(Base64.getEncoder().encodeToString(encryptedAESKey));
-        user.setPublicKeyPath(publicKeyPath);
-        user.setPrivateKeyPath(privateKeyPath);
+        return UsersEntity.builder()
+                .userName(user.getUserName())
+                .password(encryptedPassword)
+                .email(encryptedEmail)
+                .encryptedAESKey(encryptedAESKey)
+                .cipherVersion(AesEnvelope.VERSION_1)
+                .publicKeyPath(publicKeyPath)
+                .privateKeyPath(privateKeyPath)
+                .publicKeyFingerprint(HashUtils.sha256(publicKey.getEncoded()))
+                .build();
+    }
+
+    /**
+     * Records the users of a bulk request that cannot be saved: missing users or fields, and emails
+     * repeated in the request, which would share the same key pair.
+     */
+    private void rejectInvalidUsers(List<UserDTO> users, Map<Integer, String> errors) {
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserDTO user = users.get(i);
+            if (Objects.isNull(user)) {
+                errors.put(i, "User must not be null");
+            } else if (Objects.isNull(user.getEmail()) || user.getEmail().isEmpty()
+                    || Objects.isNull(user.getPassword()) || user.getPassword().isEmpty()) {
+                errors.put(i, "Email and password must not be empty");
+            } else if (!emails.add(user.getEmail())) {
+                errors.put(i, "Duplicate email in batch");
+            }
+        }
+    }
+
+    /**
+     * Encrypts the valid users between {@code from} and {@code to} on the worker pool and inserts the ones
+     * that are not saved yet in one JDBC batch.
+     *
+     * @return The number of users inserted.
+     */
+    private int saveUserChunk(List<UserDTO> users, int from, int to, Map<Integer, String> errors) {
+        List<Integer> pending = IntStream.range(from, to)
+                .filter(i -> !errors.containsKey(i))
+                .boxed()
+                .collect(Collectors.toList());
+        saveNewKeyPairs(users, pending, errors);
+
+        // Entity đã mã hóa theo vị trí trong danh sách gửi lên
+        Map<Integer, UsersEntity> encrypted = new ConcurrentSkipListMap<>();
+        onWorkers(() -> {
+            pending.parallelStream()
+                    .filter(i -> !errors.containsKey(i))
+                    .forEach(i -> {
+                        try {
+                            encrypted.put(i, encryptUser(users.get(i)));
+                        } catch (InvalidInputException e) {
+                            errors.put(i, e.getMessage());
+                        } catch (Exception e) {
+                            log.warn("Cannot encrypt user at index {}", i, e);
+                            errors.put(i, "Cannot encrypt user: " + e.getMessage());
+                        }
+                    });
+            return null;
+        });
+        if (encrypted.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> newUsers = rejectExistingUsers(encrypted, errors);
+        if (newUsers.isEmpty()) {
+            return 0;
+        }
+        return insertUsers(encrypted, newUsers, errors);
+    }
+
+    /**
+     * Records the encrypted users of a chunk that are already saved and returns the others.
+     * <p>
+     * Email is stored encrypted with a random key, so users are matched on their public key fingerprint instead:
+     * a user sent again finds the key pair saved by the first request and gets the same fingerprint.
+     */
+    private List<Integer> rejectExistingUsers(Map<Integer, UsersEntity> encrypted, Map<Integer, String> errors) {
+        Set<ByteBuffer> existing = usersRepository.findPublicKeyFingerprintsIn(encrypted.values().stream()
+                        .map(UsersEntity::getPublicKeyFingerprint)
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(ByteBuffer::wrap)
+                .collect(Collectors.toSet());
+
+        List<Integer> newUsers = new ArrayList<>(encrypted.size());
+        encrypted.forEach((i, user) -> {
+            if (existing.contains(ByteBuffer.wrap(user.getPublicKeyFingerprint()))) {
+                errors.put(i, "User already exists");
+            } else {
+                newUsers.add(i);
+            }
+        });
+        return newUsers;
+    }
 
-        return usersRepository.save(user);
+    /**
+     * Inserts the given users in one JDBC batch. If the batch fails, inserts them again one by one so that
+     * a single bad row only fails its own user.
+     *
+     * @return The number of users inserted.
+     */
+    private int insertUsers(Map<Integer, UsersEntity> users, List<Integer> indexes, Map<Integer, String> errors) {
+        List<UsersEntity> batch = indexes.stream().map(users::get).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> usersBatchRepository.insertAll(batch));
+            savedUsers.increment(batch.size());
+            return batch.size();
+        } catch (DataAccessException e) {
+            if (indexes.size() == 1) {
+                log.warn("Cannot insert user at index {}", indexes.get(0), e);
+                errors.put(indexes.get(0), "Cannot save user: " + e.getMostSpecificCause().getMessage());
+                return 0;
+            }
+            // Ghi lại từng người dùng để một bản ghi lỗi không làm hỏng cả batch
+            log.warn("Batch insert of {} users failed, retrying one by one", indexes.size(), e);
+            int saved = 0;
+            for (Integer i : indexes) {
+                saved += insertUsers(users, List.of(i), errors);
+            }
+            return saved;
+        }
     }
 
     /**
-     * Retrieves a user entity by ID and verifies the provided public key.
+     * Takes key pairs for the users of a chunk that have none yet, in parallel, and saves them to the key storage
+     * in one write, so the chunk costs one fsync instead of two per user. {@link #encryptUser(UserDTO)} then
+     * finds the keys in place.
+     */
+    private void saveNewKeyPairs(List<UserDTO> users, List<Integer> pending, Map<Integer, String> errors) {
+        Map<Integer, KeyPair> keyPairs = new ConcurrentHashMap<>();
+        onWorkers(() -> {
+            pending.parallelStream().forEach(i -> {
+                try {
+                    String email = users.get(i).getEmail();
+                    if (!keyStorage.exists(EncryptionUtil.generateKeyPath(email, EncryptionConstant.PUBLIC_KEY))
+                            || !keyStorage.exists(EncryptionUtil.generateKeyPath(email, EncryptionConstant.PRIVATE_KEY))) {
+                        keyPairs.put(i, keyPairPool.take());
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Cannot generate key pair for user at index {}", i, e);
+                    errors.put(i, "Cannot generate key pair: " + e.getMessage());
+                }
+            });
+            return null;
+        });
+        if (keyPairs.isEmpty()) {
+            return;
+        }
+
+        Map<String, byte[]> encodedKeys = new LinkedHashMap<>();
+        new TreeMap<>(keyPairs).forEach((i, keyPair) -> {
+            String email = users.get(i).getEmail();
+            KeyPairGeneratorUtil.addKeyPair(encodedKeys, keyPair,
+                    EncryptionUtil.generateKeyPath(email, EncryptionConstant.PUBLIC_KEY),
+                    EncryptionUtil.generateKeyPath(email, EncryptionConstant.PRIVATE_KEY));
+        });
+        try {
+            EncryptionHelper.saveKeyPairs(keyStorage, encodedKeys);
+        } catch (RuntimeException e) {
+            log.error("Cannot save {} key pairs", keyPairs.size(), e);
+            keyPairs.keySet().forEach(i -> errors.put(i, "Cannot save key pair: " + e.getMessage()));
+        }
+    }
+
+    private <T> T onWorkers(Callable<T> task) {
+        try {
+            return workers.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk user import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error encrypting users", e.getCause());
+        }
+    }
+
+    /**
+     * Retrieves a user by ID and verifies the provided public key.
      * Decrypts the user's sensitive data if the provided public key matches the saved one.
+     * The decrypted data is returned in a DTO, the loaded entity keeps its encrypted values.
      *
      * @param id The ID of the user to be retrieved.
      * @param publicKeyContent The Base64 encoded public key used for verification.
-     * @return The user entity with decrypted sensitive data.
+     * @return The user with decrypted sensitive data.
      * @throws EncryptionException If there is a mismatch in public keys or any encryption/decryption operation fails.
      */
     @Override
-    public UsersEntity getUser(Long id, String publicKeyContent) throws EncryptionException {
+    public UserDTO getUser(Long id, String publicKeyContent) throws EncryptionException {
 
         // Validate inputs
         ValidationUtils.validateString(publicKeyContent);
@@ -103,35 +432,127 @@ public class UserServiceImpl implements IUserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id));
 
         try {
-            // Load provided public key from base64 string
-            PublicKey providedPublicKey = encryptionUtil.loadPublicKeyFromBase64(publicKeyContent);
-
-            // Load saved public key from file
-            PublicKey savedPublicKey = encryptionUtil.loadPublicKey(user.getPublicKeyPath());
-
-            // Verify provided public key matches saved public key
-            if (!providedPublicKey.equals(savedPublicKey)) {
+            // Verify provided public key matches saved public key by comparing SHA-256 fingerprints
+            byte[] providedPublicKey = ValidationUtils.decodeKey(publicKeyContent).bytes();
+            if (!matchesPublicKey(user, providedPublicKey)) {
                 throw new EncryptionException("Provided public key does not match the saved public key for user: " + id);
             }
 
             // Decrypt AES key with RSA
-            byte[] encryptedAESKey = Base64.getDecoder().decode(user.getEncryptedAESKey());
-            PrivateKey privateKey = encryptionUtil.loadPrivateKey(user.getPrivateKeyPath());
-            SecretKey aesKey = encryptionUtil.decryptAESKeyWithRSA(encryptedAESKey, privateKey);
+            byte[] encryptedAESKey = user.getEncryptedAESKey();
+            PrivateKey privateKey = UserKeyCache.getPrivateKey(keyStorage, user.getPrivateKeyPath());
+            SecretKey aesKey = cryptoExecutor.call(() -> encryptionUtil.decryptAESKeyWithRSA(encryptedAESKey, privateKey));
 
             // Decrypt sensitive data with AES
-            byte[] decryptedPassword = encryptionUtil.decryptDataWithAES(Base64.getDecoder().decode(user.getPassword()), aesKey);
-            byte[] decryptedEmail = encryptionUtil.decryptDataWithAES(Base64.getDecoder().decode(user.getEmail()), aesKey);
+            byte[] decryptedPassword = encryptionUtil.decryptDataWithAES(user.getPassword(),
+                    aesKey, user.getCipherVersion());
+            byte[] decryptedEmail = encryptionUtil.decryptDataWithAES(user.getEmail(),
+                    aesKey, user.getCipherVersion());
 
-            // Update entity with decrypted data
-            user.setPassword(new String(decryptedPassword, StandardCharsets.UTF_8));
-            user.setEmail(new String(decryptedEmail, StandardCharsets.UTF_8));
-            return user;
+            // Trả về DTO chứa dữ liệu đã giải mã, không sửa entity được quản lý hoặc lấy từ cache
+            return UserMapper.convertToDTO(user, new String(decryptedPassword, StandardCharsets.UTF_8),
+                    new String(decryptedEmail, StandardCharsets.UTF_8));
 
+        } catch (InvalidInputException e) {
+            throw e;
         } catch (EncryptionException e) {
             throw new EncryptionException("Failed to decrypt user data", e);
         } catch (Exception e) {
             throw new EncryptionException("Unexpected error while decrypting user data", e);
         }
     }
+
+    /**
+     * Stores the public key fingerprint of users saved before the fingerprint column existed.
+     * Rows are processed in id order, one page per database transaction.
+     *
+     * @return The number of users updated.
+     */
+    @Override
+    public long backfillPublicKeyFingerprints() {
+        long updated = 0;
+        long lastId = 0;
+        List<UsersEntity> page;
+        do {
+            final long afterId = lastId;
+            page = transactionTemplate.execute(status -> fingerprintPage(afterId));
+            if (page.isEmpty()) {
+                break;
+            }
+            updated += page.stream().filter(user -> Objects.nonNull(user.getPublicKeyFingerprint())).count();
+            lastId = page.get(page.size() - 1).getAccountId();
+        } while (page.size() == CommonConstant.BACKFILL_PAGE_SIZE);
+
+        log.info("Backfilled public key fingerprints for {} users", updated);
+        return updated;
+    }
+
+    /**
+     * Compares the fingerprint of the provided public key with the saved one in constant time.
+     * Users without a stored fingerprint are compared against the fingerprint of their key file.
+     *
+     * @param user              The saved user.
+     * @param providedPublicKey The decoded X.509 public key sent by the caller.
+     * @return {@code true} if the keys are identical.
+     * @throws IOException If the key file of a user without a fingerprint cannot be read.
+     */
+    private boolean matchesPublicKey(UsersEntity user, byte[] providedPublicKey) throws IOException {
+        byte[] savedFingerprint = user.getPublicKeyFingerprint();
+        if (Objects.isNull(savedFingerprint)) {
+            // Bản ghi cũ chưa được backfill, đọc khóa đã lưu nhưng không cần phân tích ASN.1
+            savedFingerprint = HashUtils.sha256(keyStorage.read(user.getPublicKeyPath()));
+        }
+        return MessageDigest.isEqual(savedFingerprint, HashUtils.sha256(providedPublicKey));
+    }
+
+    /**
+     * Computes the fingerprints of the next page of users without one. Must run inside a transaction,
+     * the changes are flushed on commit.
+     *
+     * @param afterId The last id processed by the previous page.
+     * @return The users of the page.
+     */
+    private List<UsersEntity> fingerprintPage(long afterId) {
+        List<UsersEntity> page = usersRepository
+                .findByPublicKeyFingerprintIsNullAndAccountIdGreaterThanOrderByAccountIdAsc(afterId,
+                        PageRequest.of(0, CommonConstant.BACKFILL_PAGE_SIZE));
+
+        // Giữ thứ tự id để người dùng tạo trước nhận fingerprint khi hai người dùng trùng khóa
+        List<Map.Entry<UsersEntity, byte[]>> fingerprints = new ArrayList<>(page.size());
+        for (UsersEntity user : page) {
+            try {
+                fingerprints.add(Map.entry(user, HashUtils.sha256(keyStorage.read(user.getPublicKeyPath()))));
+            } catch (IOException e) {
+                // Bỏ qua người dùng không đọc được khóa, các bản ghi khác vẫn được xử lý
+                log.warn("Cannot compute public key fingerprint for user {}", user.getAccountId(), e);
+            }
+        }
+        if (fingerprints.isEmpty()) {
+            return page;
+        }
+
+        // Fingerprint là duy nhất: người dùng trùng khóa với người khác được giữ nguyên để không làm hỏng cả trang
+        Set<ByteBuffer> taken = usersRepository.findPublicKeyFingerprintsIn(fingerprints.stream()
+                        .map(Map.Entry::getValue)
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(ByteBuffer::wrap)
+                .collect(Collectors.toCollection(HashSet::new));
+        for (Map.Entry<UsersEntity, byte[]> fingerprint : fingerprints) {
+            if (taken.add(ByteBuffer.wrap(fingerprint.getValue()))) {
+                fingerprint.getKey().setPublicKeyFingerprint(fingerprint.getValue());
+            } else {
+                log.warn("User {} shares its public key with another user, fingerprint not stored",
+                        fingerprint.getKey().getAccountId());
+            }
+        }
+        return page;
+    }
+
+    private static Counter bulkCounter(String outcome) {
+        return Counter.builder(MetricsConstant.USER_BULK_USERS)
+                .description("Users processed by bulk imports")
+                .tag(MetricsConstant.TAG_OUTCOME, outcome)
+                .register(Metrics.globalRegistry);
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.demo.hybrid.until.configs;
+
+import com.example.demo.hybrid.service.ITransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes blind indexes for transaction rows written before the index columns existed.
+ * Runs once at startup when {@code hybrid.blind-index.backfill-on-startup=true}; it scans the whole table,
+ * so it is off unless explicitly enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "hybrid.blind-index.backfill-on-startup", havingValue = "true", matchIfMissing = false)
+public class BlindIndexBackfillRunner implements CommandLineRunner {
+
+    @Autowired
+    private ITransactionService transactionService;
+
+    @Override
+    public void run(String... args) {
+        // Chỉ xử lý các bản ghi chưa có index nên chạy lại nhiều lần vẫn an toàn
+        transactionService.backfillBlindIndexes();
+    }
+}
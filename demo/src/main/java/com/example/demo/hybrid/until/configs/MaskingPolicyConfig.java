@@ -0,0 +1,20 @@
+package com.example.demo.hybrid.until.configs;
+
+import com.example.demo.hybrid.until.log.CustomLogger;
+import com.example.demo.hybrid.until.log.MaskingPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the {@code hybrid.log.masking.*} properties to {@link CustomLogger}.
+ */
+@Component
+public class MaskingPolicyConfig {
+
+    public MaskingPolicyConfig(@Value("${hybrid.log.masking.keep-first:0}") int keepFirst,
+                               @Value("${hybrid.log.masking.keep-last:0}") int keepLast,
+                               @Value("${hybrid.log.masking.mask-char:?}") char maskChar,
+                               @Value("${hybrid.log.masking.keep-separators:false}") boolean keepSeparators) {
+        CustomLogger.setMaskingPolicy(MaskingPolicy.of(keepFirst, keepLast, maskChar, keepSeparators));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.hybrid.until.configs;
+
+import com.example.demo.hybrid.service.IUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores the public key fingerprint of users saved before the fingerprint column existed.
+ * Runs at startup when {@code hybrid.key-fingerprint.backfill-on-startup=true}; it reads the key of every user
+ * without a fingerprint, so it is off unless an operator enables it once after upgrading.
+ */
+@Component
+@ConditionalOnProperty(name = "hybrid.key-fingerprint.backfill-on-startup", havingValue = "true", matchIfMissing = false)
+public class PublicKeyFingerprintBackfillRunner implements CommandLineRunner {
+
+    @Autowired
+    private IUserService userService;
+
+    @Override
+    public void run(String... args) {
+        // Chỉ xử lý người dùng chưa có fingerprint nên chạy lại nhiều lần vẫn an toàn
+        userService.backfillPublicKeyFingerprints();
+    }
+}
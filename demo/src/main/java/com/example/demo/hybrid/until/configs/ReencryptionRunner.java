@@ -0,0 +1,40 @@
+package com.example.demo.hybrid.until.configs;
+
+import com.example.demo.hybrid.service.IReencryptionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the re-encryption jobs on a background thread once the application is up.
+ * Enable with {@code hybrid.reencryption.enabled=true}, the jobs resume from their checkpoints.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hybrid.reencryption.enabled", havingValue = "true")
+public class ReencryptionRunner implements CommandLineRunner {
+
+    @Autowired
+    private IReencryptionService reencryptionService;
+
+    @Value("${hybrid.reencryption.restart:false}")
+    private boolean restart;
+
+    @Override
+    public void run(String... args) {
+        // Chạy nền để không chặn việc khởi động ứng dụng
+        Thread job = new Thread(() -> {
+            try {
+                reencryptionService.reencryptTransactions(restart);
+                reencryptionService.reencryptUsers(restart);
+            } catch (RuntimeException e) {
+                log.error("Re-encryption job stopped, it resumes from its checkpoint on the next start", e);
+            }
+        }, "reencryption");
+        job.setDaemon(true);
+        job.start();
+    }
+}
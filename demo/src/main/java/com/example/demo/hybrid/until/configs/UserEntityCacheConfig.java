@@ -0,0 +1,84 @@
+package com.example.demo.hybrid.until.configs;
+
+import com.example.demo.hybrid.until.constant.CacheConstant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enables the Hibernate second-level cache for {@code UsersEntity}, backed by a local Caffeine JCache.
+ * Enable with {@code hybrid.user-cache.enabled=true}.
+ * <p>
+ * Hibernate caches the disassembled column values, so the password, email and AES key stay in their
+ * encrypted form in the cache. Entries are bounded by size and time to live.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hybrid.user-cache.enabled", havingValue = "true")
+public class UserEntityCacheConfig implements HibernatePropertiesCustomizer {
+
+    private final CacheManager cacheManager;
+
+    private final Cache<?, ?> nativeCache;
+
+    public UserEntityCacheConfig(@Value("${hybrid.user-cache.max-size:10000}") long maxSize,
+                                 @Value("${hybrid.user-cache.ttl-minutes:30}") long ttlMinutes) {
+        this.cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(CacheConstant.USERS_ENTITY_REGION);
+        if (cache == null) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+            // Thống kê của Caffeine để xuất tỷ lệ hit/miss qua metrics
+            configuration.setNativeStatisticsEnabled(true);
+            cache = cacheManager.createCache(CacheConstant.USERS_ENTITY_REGION, configuration);
+        }
+        this.nativeCache = cache.unwrap(Cache.class);
+        log.info("User second-level cache enabled, max size {}, ttl {} minutes", maxSize, ttlMinutes);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put("hibernate.cache.use_second_level_cache", true);
+        hibernateProperties.put("hibernate.cache.use_query_cache", false);
+        hibernateProperties.put("hibernate.cache.region.factory_class", "jcache");
+        hibernateProperties.put("hibernate.javax.cache.cache_manager", cacheManager);
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the user cache.
+     *
+     * @return The cache statistics.
+     */
+    public CacheStats stats() {
+        return nativeCache.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached users.
+     *
+     * @return The estimated cache size.
+     */
+    public long size() {
+        return nativeCache.estimatedSize();
+    }
+
+    @PreDestroy
+    public void close() {
+        cacheManager.close();
+    }
+}
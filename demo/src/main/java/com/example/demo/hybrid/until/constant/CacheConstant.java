@@ -0,0 +1,23 @@
+package com.example.demo.hybrid.until.constant;
+
+public class CacheConstant {
+
+    public static final long PUBLIC_KEY_CACHE_MAX_SIZE = 10_000L;
+
+    public static final String DIGEST_SHA_256 = "SHA-256";
+
+    public static final long USER_KEY_CACHE_MAX_SIZE = 10_000L;
+
+    public static final long USER_KEY_CACHE_TTL_MINUTES = 30L;
+
+    public static final long DATA_KEY_CACHE_MAX_SIZE = 50_000L;
+
+    public static final long DATA_KEY_CACHE_TTL_MINUTES = 10L;
+
+    public static final long KEY_CONTENT_CACHE_MAX_SIZE = 10_000L;
+
+    public static final long KEY_CONTENT_CACHE_TTL_MINUTES = 30L;
+
+    public static final String USERS_ENTITY_REGION = "users";
+
+}
@@ -14,8 +14,19 @@ public class CommonConstant {
 
     public static final String LONG_TEXT = "longtext";
 
+    public static final String CHAR_64 = "char(64)";
+
+    public static final String BINARY_32 = "binary(32)";
+
+    // Đủ cho bản mã AES-GCM của dữ liệu ngắn và khóa AES được bọc bằng RSA tới 4096 bit
+    public static final String VARBINARY_512 = "varbinary(512)";
+
+    public static final int VARBINARY_512_LENGTH = 512;
+
     public static final String INT ="int";
 
+    public static final String TINYINT = "tinyint";
+
     public static final String DATE_FORMAT = "yyyy-MM-dd";
 
     public static final String DEFAULT_PAGE = "0";
@@ -26,5 +37,37 @@ public class CommonConstant {
 
     public static final String PARAM_ENCRYPTED_TRANSACTION_ID = "encryptedTransactionId";
 
+    public static final String PARAM_ENCRYPTED_ACCOUNT = "encryptedAccount";
+
+    public static final int JDBC_BATCH_SIZE = 500;
+
+    public static final int MAX_TRANSACTION_BATCH_SIZE = 10_000;
+
+    public static final int MAX_USER_BATCH_SIZE = 10_000;
+
+    // MySQL Connector/J chỉ stream từng dòng khi fetch size là Integer.MIN_VALUE, chỉ áp dụng cho truy vấn export
+    public static final String EXPORT_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    public static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    // Số dòng export được giải mã trước trong khi luồng streaming tiếp tục đọc cursor
+    public static final int EXPORT_PIPELINE_DEPTH = 256;
+
+    public static final String PARAM_FROM = "from";
+
+    public static final String PARAM_TO = "to";
+
+    public static final String PARAM_CURSOR = "cursor";
+
+    public static final String PARAM_SIZE = "size";
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int BACKFILL_PAGE_SIZE = 500;
+
+    public static final String REENCRYPTION_JOB_TRANSACTIONS = "transaction_history";
+
+    public static final String REENCRYPTION_JOB_USERS = "users";
+
 
 }
@@ -6,6 +6,19 @@ public class EncryptionConstant {
 
     public static final String ALGORITHM_RSA = "RSA";
 
+    public static final String AES_GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+
+    // Định dạng mặc định của "AES" trước khi có envelope, chỉ dùng để giải mã dữ liệu cũ
+    public static final String AES_LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+
+    public static final String ALGORITHM_HMAC_SHA256 = "HmacSHA256";
+
+    public static final String BLIND_INDEX_KEY_LABEL = "blind-index";
+
+    public static final String BLIND_INDEX_TRANSACTION_ID = "transactionId";
+
+    public static final String BLIND_INDEX_ACCOUNT = "account";
+
     public static final String PUBLIC_KEY = "publicKey";
 
     public static final String PRIVATE_KEY = "privateKey";
@@ -10,6 +10,15 @@ public class LogConstant {
 
     public static final String LOG_INDEBT = "indebt";
 
+    public static final int DEFAULT_MASK_KEEP_FIRST = 0;
+
+    // Mặc định che toàn bộ giá trị như cách che bằng regex trước đây
+    public static final int DEFAULT_MASK_KEEP_LAST = 0;
+
+    public static final boolean DEFAULT_MASK_KEEP_SEPARATORS = false;
+
+    public static final char DEFAULT_MASK_CHAR = '?';
+
 
 
 }
@@ -18,4 +18,10 @@ public class LogMessageConstants {
     // Thông điệp log cho ngoại lệ NotFound
     public static final String NOT_FOUND_EXCEPTION = "NotFound exception: {}";
 
+    // Thông điệp log cho dữ liệu đầu vào không hợp lệ
+    public static final String INVALID_INPUT_EXCEPTION = "InvalidInput exception: {}";
+
+    // Thông điệp log khi hàng đợi ghi đầy
+    public static final String QUEUE_FULL_EXCEPTION = "QueueFull exception: {}";
+
 }
@@ -0,0 +1,115 @@
+package com.example.demo.hybrid.until.constant;
+
+import java.time.Duration;
+
+public class MetricsConstant {
+
+    public static final String CRYPTO_DURATION = "hybrid.crypto.duration";
+
+    public static final String CRYPTO_PAYLOAD_SIZE = "hybrid.crypto.payload.size";
+
+    public static final String CRYPTO_ERRORS = "hybrid.crypto.errors";
+
+    public static final String CIPHER_POOL_REQUESTS = "hybrid.cipher.pool.requests";
+
+    public static final String AES_LEGACY_DECRYPTIONS = "hybrid.aes.legacy.decryptions";
+
+    public static final String CACHE_GETS = "hybrid.cache.gets";
+
+    public static final String CACHE_EVICTIONS = "hybrid.cache.evictions";
+
+    public static final String CACHE_SIZE = "hybrid.cache.size";
+
+    public static final String KEY_PAIR_POOL_DEPTH = "hybrid.key.pair.pool.depth";
+
+    public static final String KEY_PAIR_POOL_REQUESTS = "hybrid.key.pair.pool.requests";
+
+    public static final String KEY_PAIR_POOL_GENERATED = "hybrid.key.pair.pool.generated";
+
+    public static final String KEY_PAIR_POOL_WAIT = "hybrid.key.pair.pool.wait";
+
+    public static final String WRITE_BEHIND_DEPTH = "hybrid.write.behind.depth";
+
+    public static final String WRITE_BEHIND_BATCH_SIZE = "hybrid.write.behind.batch.size";
+
+    public static final String WRITE_BEHIND_COMMIT = "hybrid.write.behind.commit";
+
+    public static final String WRITE_BEHIND_REJECTED = "hybrid.write.behind.rejected";
+
+    public static final String REENCRYPTION_ROWS = "hybrid.reencryption.rows";
+
+    public static final String REENCRYPTION_CHUNK = "hybrid.reencryption.chunk";
+
+    public static final String REENCRYPTION_PROGRESS = "hybrid.reencryption.progress";
+
+    public static final String LOG_DROPPED = "hybrid.log.dropped";
+
+    public static final String USER_BULK_USERS = "hybrid.user.bulk.users";
+
+    public static final String TAG_OPERATION = "operation";
+
+    public static final String TAG_ALGORITHM = "algorithm";
+
+    public static final String TAG_OUTCOME = "outcome";
+
+    public static final String TAG_RESULT = "result";
+
+    public static final String TAG_CACHE = "cache";
+
+    public static final String TAG_EXCEPTION = "exception";
+
+    public static final String TAG_TABLE = "table";
+
+    public static final String OUTCOME_SUCCESS = "success";
+
+    public static final String OUTCOME_FAILURE = "failure";
+
+    public static final String RESULT_HIT = "hit";
+
+    public static final String RESULT_MISS = "miss";
+
+    public static final String RESULT_REENCRYPTED = "reencrypted";
+
+    public static final String RESULT_UNCHANGED = "unchanged";
+
+    public static final String RESULT_FAILED = "failed";
+
+    public static final String OPERATION_ENCRYPT = "encrypt";
+
+    public static final String OPERATION_DECRYPT = "decrypt";
+
+    public static final String OPERATION_WRAP = "wrap";
+
+    public static final String OPERATION_UNWRAP = "unwrap";
+
+    public static final String OPERATION_KEYGEN = "keygen";
+
+    public static final String OPERATION_KEY_LOAD = "key-load";
+
+    public static final String OPERATION_KEY_PARSE = "key-parse";
+
+    public static final String ALGORITHM_AES_GCM = "AES-GCM";
+
+    public static final String ALGORITHM_AES_ECB = "AES-ECB";
+
+    public static final String ALGORITHM_RSA = "RSA";
+
+    public static final String ALGORITHM_AES = "AES";
+
+    public static final String BASE_UNIT_BYTES = "bytes";
+
+    public static final String BASE_UNIT_SECONDS = "seconds";
+
+    // Giới hạn bucket của histogram để mỗi timer chỉ xuất vài chục bucket thay vì vài trăm
+    public static final Duration CRYPTO_DURATION_MIN = Duration.ofNanos(1_000);
+
+    public static final Duration CRYPTO_DURATION_MAX = Duration.ofSeconds(10);
+
+    public static final double CRYPTO_PAYLOAD_SIZE_MIN = 1;
+
+    public static final double CRYPTO_PAYLOAD_SIZE_MAX = 1 << 20;
+
+    public static final Duration WRITE_BEHIND_COMMIT_MIN = Duration.ofMillis(1);
+
+    public static final Duration WRITE_BEHIND_COMMIT_MAX = Duration.ofSeconds(30);
+}
@@ -12,6 +12,8 @@ public class RegexConstant {
 
     public static final String KEY_PATH_SUFFIX = ".pem";
 
+    public static final String PUBLIC_KEY_FILE_SUFFIX = "_" + EncryptionConstant.PUBLIC_KEY + KEY_PATH_SUFFIX;
+
     public static final String MASK_CHAR = "?";
 
     public static final String REGEX_AT = "@";
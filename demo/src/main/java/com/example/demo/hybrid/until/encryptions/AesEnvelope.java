@@ -0,0 +1,197 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Self-describing AES ciphertext format.
+ * <p>
+ * Layout: {@code magic (1) | version (1) | algorithm id (1) | IV (12) | ciphertext + GCM tag (16)}.
+ * The three header bytes are authenticated as additional data, so a changed header fails the tag check.
+ * <p>
+ * The header alone cannot tell an envelope from a legacy {@code AES/ECB/PKCS5Padding} ciphertext: about one legacy
+ * ciphertext in 256 starts with the magic byte. Rows therefore record their format in a {@code cipher_version}
+ * column. Data known to be an envelope is opened with {@link #open(byte[], SecretKey)}, which never falls back to
+ * ECB, so a modified header cannot downgrade to the legacy format. Rows written before the column existed are
+ * opened with {@link #openUnmarked(byte[], SecretKey)}, which tries the envelope first and then ECB.
+ */
+public class AesEnvelope {
+
+    private static final Logger logger = LoggerFactory.getLogger(AesEnvelope.class);
+
+    public static final byte MAGIC = (byte) 0xAE;
+
+    public static final byte VERSION_1 = 0x01;
+
+    public static final byte ALGORITHM_AES_GCM = 0x01;
+
+    public static final int HEADER_LENGTH = 3;
+
+    public static final int IV_LENGTH = 12;
+
+    public static final int TAG_LENGTH_BITS = 128;
+
+    private static final int AES_BLOCK_SIZE = 16;
+
+    private static final int MIN_ENVELOPE_LENGTH = HEADER_LENGTH + IV_LENGTH + TAG_LENGTH_BITS / 8;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final LongAdder LEGACY_DECRYPTIONS = new LongAdder();
+
+    private AesEnvelope() {
+    }
+
+    /**
+     * Plaintext of a ciphertext whose format was not recorded, with the format it was found in.
+     *
+     * @param plaintext The decrypted data.
+     * @param legacy    Whether the data was a legacy ECB ciphertext.
+     */
+    public record Opened(byte[] plaintext, boolean legacy) {
+    }
+
+    /**
+     * Checks whether a {@code cipher_version} column value marks the data as an envelope.
+     *
+     * @param cipherVersion The stored format, null for rows written before the format was recorded.
+     * @return true if the data is a version 1 envelope.
+     */
+    public static boolean isEnvelopeVersion(Byte cipherVersion) {
+        return Objects.nonNull(cipherVersion) && cipherVersion == VERSION_1;
+    }
+
+    /**
+     * Encrypts data with AES-GCM and a random IV.
+     *
+     * @param plaintext The data to encrypt.
+     * @param key       The AES key.
+     * @return The envelope bytes.
+     */
+    public static byte[] seal(byte[] plaintext, SecretKey key) {
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+
+        byte[] envelope = new byte[HEADER_LENGTH + IV_LENGTH + plaintext.length + TAG_LENGTH_BITS / 8];
+        envelope[0] = MAGIC;
+        envelope[1] = VERSION_1;
+        envelope[2] = ALGORITHM_AES_GCM;
+        System.arraycopy(iv, 0, envelope, HEADER_LENGTH, IV_LENGTH);
+
+        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.AES_GCM_TRANSFORMATION, Cipher.ENCRYPT_MODE, key,
+                new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        try {
+            cipher.updateAAD(envelope, 0, HEADER_LENGTH);
+            cipher.doFinal(plaintext, 0, plaintext.length, envelope, HEADER_LENGTH + IV_LENGTH);
+        } catch (Exception e) {
+            logger.error("AES-GCM encryption failed: {}", e.getMessage());
+            throw new EncryptionException("Cipher operation failed", e);
+        }
+        return envelope;
+    }
+
+    /**
+     * Decrypts data known to be an envelope. Never falls back to the legacy ECB format.
+     *
+     * @param ciphertext The envelope.
+     * @param key        The AES key.
+     * @return The plaintext.
+     * @throws EncryptionException if the data was modified, the header is not supported or the key is wrong.
+     */
+    public static byte[] open(byte[] ciphertext, SecretKey key) {
+        if (!hasHeader(ciphertext)) {
+            logger.error("Unsupported AES envelope header");
+            throw new EncryptionException("Unsupported ciphertext version or algorithm");
+        }
+
+        try {
+            return openGcm(ciphertext, key);
+        } catch (AEADBadTagException e) {
+            logger.error("AES-GCM authentication failed");
+            throw new EncryptionException("Ciphertext authentication failed", e);
+        }
+    }
+
+    /**
+     * Decrypts data whose format was not recorded: an envelope, or a legacy ECB ciphertext that may happen to
+     * start with the magic byte.
+     * <p>
+     * The envelope is tried first. When the header is not supported or the tag check fails and the length is a
+     * whole number of AES blocks, the data is decrypted as ECB. It is reported as corrupt only if that fails too.
+     *
+     * @param ciphertext The envelope or legacy ciphertext.
+     * @param key        The AES key.
+     * @return The plaintext and the format it was found in.
+     * @throws EncryptionException if the data is neither a valid envelope nor a valid ECB ciphertext.
+     */
+    public static Opened openUnmarked(byte[] ciphertext, SecretKey key) {
+        AEADBadTagException tagFailure = null;
+        if (hasHeader(ciphertext)) {
+            try {
+                return new Opened(openGcm(ciphertext, key), false);
+            } catch (AEADBadTagException e) {
+                tagFailure = e;
+            }
+        }
+        if (ciphertext.length % AES_BLOCK_SIZE != 0) {
+            logger.error("AES ciphertext is neither a valid envelope nor an ECB ciphertext");
+            throw new EncryptionException(Objects.nonNull(tagFailure)
+                    ? "Ciphertext authentication failed" : "Unsupported ciphertext version or algorithm", tagFailure);
+        }
+        return new Opened(openLegacy(ciphertext, key), true);
+    }
+
+    /**
+     * Checks whether the data starts with a supported envelope header.
+     *
+     * @param ciphertext The data to check.
+     * @return true if the data is a version 1 AES-GCM envelope.
+     */
+    public static boolean hasHeader(byte[] ciphertext) {
+        return ciphertext.length >= MIN_ENVELOPE_LENGTH
+                && ciphertext[0] == MAGIC
+                && ciphertext[1] == VERSION_1
+                && ciphertext[2] == ALGORITHM_AES_GCM;
+    }
+
+    /**
+     * Returns the number of payloads decrypted with the legacy ECB format.
+     *
+     * @return The legacy decryption count since startup.
+     */
+    public static long getLegacyDecryptions() {
+        return LEGACY_DECRYPTIONS.sum();
+    }
+
+    private static byte[] openGcm(byte[] ciphertext, SecretKey key) throws AEADBadTagException {
+        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.AES_GCM_TRANSFORMATION, Cipher.DECRYPT_MODE, key,
+                new GCMParameterSpec(TAG_LENGTH_BITS, ciphertext, HEADER_LENGTH, IV_LENGTH));
+        try {
+            cipher.updateAAD(ciphertext, 0, HEADER_LENGTH);
+            return cipher.doFinal(ciphertext, HEADER_LENGTH + IV_LENGTH,
+                    ciphertext.length - HEADER_LENGTH - IV_LENGTH);
+        } catch (AEADBadTagException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("AES-GCM decryption failed: {}", e.getMessage());
+            throw new EncryptionException("Cipher operation failed", e);
+        }
+    }
+
+    private static byte[] openLegacy(byte[] ciphertext, SecretKey key) {
+        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.AES_LEGACY_TRANSFORMATION, Cipher.DECRYPT_MODE, key);
+        byte[] plaintext = CipherUtils.doFinal(cipher, ciphertext);
+        LEGACY_DECRYPTIONS.increment();
+        return plaintext;
+    }
+}
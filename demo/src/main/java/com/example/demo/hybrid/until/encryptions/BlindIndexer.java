@@ -0,0 +1,72 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.helper.ExceptionHelper;
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Computes keyed HMAC-SHA256 blind indexes of encrypted fields.
+ * <p>
+ * A blind index is a deterministic, non-reversible token of a plain value. It is stored next to the
+ * ciphertext so that equality lookups become index seeks instead of decrypting every row. The field name
+ * is mixed into the MAC, so equal values in different fields produce different tokens.
+ */
+@Component
+public class BlindIndexer {
+
+    private final SecretKeySpec indexKey;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    public BlindIndexer(@Value("${hybrid.blind-index.secret:}") String secret) {
+        this.indexKey = new SecretKeySpec(resolveKey(secret), EncryptionConstant.ALGORITHM_HMAC_SHA256);
+    }
+
+    /**
+     * Computes the blind index of a field value.
+     *
+     * @param field The name of the indexed field.
+     * @param value The plain value.
+     * @return The index as 64 lowercase hex characters.
+     * @throws IllegalArgumentException if the value is null or empty.
+     */
+    public String index(String field, String value) {
+        ValidationUtils.validateString(field);
+        ValidationUtils.validateString(value);
+
+        Mac mac = macs.get();
+        mac.update(field.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return HexFormat.of().formatHex(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac newMac() {
+        return ExceptionHelper.executeWithExceptionHandling(() -> {
+            Mac mac = Mac.getInstance(EncryptionConstant.ALGORITHM_HMAC_SHA256);
+            mac.init(indexKey);
+            return mac;
+        }, "Error initializing blind index MAC");
+    }
+
+    /**
+     * Decodes the configured Base64 secret. The key is never derived from the server key pair,
+     * so rotating the RSA keys does not invalidate the stored indexes.
+     *
+     * @throws IllegalStateException if no secret is configured.
+     */
+    private static byte[] resolveKey(String secret) {
+        if (Objects.isNull(secret) || secret.isBlank()) {
+            throw new IllegalStateException("hybrid.blind-index.secret must be set to a Base64 encoded key");
+        }
+        return Base64.getDecoder().decode(secret);
+    }
+}
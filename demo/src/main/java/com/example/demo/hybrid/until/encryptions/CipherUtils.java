@@ -8,14 +8,32 @@ import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Utility class for performing encryption and decryption operations using Java's Cipher class.
+ * <p>
+ * Initialized ciphers are pooled per thread and keyed by transformation, so repeated calls only pay for
+ * {@link Cipher#init(int, Key)} instead of a provider lookup through {@link Cipher#getInstance(String)}.
+ * <p>
+ * Virtual threads do not use the pool: each one lives for a single request, so a pooled cipher would only be
+ * reused within that request and then dropped with the thread, and the many short-lived pools would report a hit
+ * rate that the platform threads never see. Every call from a virtual thread creates a cipher and counts as a miss.
  */
 public class CipherUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(CipherUtils.class);
 
+    // Mỗi thread giữ một Cipher cho mỗi transformation, số phần tử bị giới hạn bởi số thuật toán đang dùng
+    private static final ThreadLocal<Map<String, Cipher>> CIPHER_POOL = ThreadLocal.withInitial(HashMap::new);
+
+    private static final LongAdder POOL_HITS = new LongAdder();
+
+    private static final LongAdder POOL_MISSES = new LongAdder();
+
     /**
      * Encrypts or decrypts the input data using the provided Cipher instance.
      *
@@ -34,7 +52,11 @@ public class CipherUtils {
     }
 
     /**
-     * Initializes a Cipher instance with the specified algorithm, mode, and key.
+     * Initializes a pooled Cipher instance with the specified algorithm, mode, and key.
+     * <p>
+     * On a platform thread the returned instance belongs to the thread's pool and is re-initialized by the next
+     * call for the same algorithm on that thread, so it must be used (typically with {@link #doFinal(Cipher, byte[])})
+     * before requesting another cipher for the same algorithm.
      *
      * @param algorithm The algorithm to be used by the Cipher.
      * @param mode The operation mode (e.g., Cipher.ENCRYPT_MODE or Cipher.DECRYPT_MODE).
@@ -44,7 +66,7 @@ public class CipherUtils {
      */
     public static Cipher getCipher(String algorithm, int mode, Key key) {
         try {
-            Cipher cipher = Cipher.getInstance(algorithm);
+            Cipher cipher = borrowCipher(algorithm);
             cipher.init(mode, key);
             return cipher;
         } catch (NoSuchAlgorithmException e) {
@@ -59,6 +81,34 @@ public class CipherUtils {
         }
     }
 
+    /**
+     * Initializes a pooled Cipher instance with algorithm parameters, such as the IV of a GCM cipher.
+     * The same pooling rules as {@link #getCipher(String, int, Key)} apply.
+     *
+     * @param algorithm The algorithm to be used by the Cipher.
+     * @param mode The operation mode (e.g., Cipher.ENCRYPT_MODE or Cipher.DECRYPT_MODE).
+     * @param key The key to be used for encryption or decryption.
+     * @param params The algorithm parameters.
+     * @return The initialized Cipher instance.
+     * @throws EncryptionException if an error occurs during cipher initialization.
+     */
+    public static Cipher getCipher(String algorithm, int mode, Key key, AlgorithmParameterSpec params) {
+        try {
+            Cipher cipher = borrowCipher(algorithm);
+            cipher.init(mode, key, params);
+            return cipher;
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("Cipher algorithm not found: {}", algorithm);
+            throw new EncryptionException("Cipher algorithm not found", e);
+        } catch (NoSuchPaddingException e) {
+            logger.error("No such padding for algorithm: {}", algorithm);
+            throw new EncryptionException("No such padding for algorithm", e);
+        } catch (Exception e) {
+            logger.error("Error initializing cipher with algorithm: {} and mode: {} - {}", algorithm, mode, e.getMessage());
+            throw new EncryptionException("Error initializing cipher", e);
+        }
+    }
+
     /**
      * Creates a Cipher instance with the specified algorithm.
      *
@@ -77,4 +127,48 @@ public class CipherUtils {
             throw new EncryptionException("No such padding for algorithm", e);
         }
     }
+
+    /**
+     * Returns the number of cipher requests served from the per-thread pool.
+     *
+     * @return The pool hit count since startup.
+     */
+    public static long getPoolHits() {
+        return POOL_HITS.sum();
+    }
+
+    /**
+     * Returns the number of cipher requests that required a provider lookup.
+     *
+     * @return The pool miss count since startup.
+     */
+    public static long getPoolMisses() {
+        return POOL_MISSES.sum();
+    }
+
+    /**
+     * Returns the calling thread's cached Cipher for the algorithm, creating it on first use.
+     * Virtual threads get a new Cipher on every call.
+     *
+     * @param algorithm The algorithm (transformation) of the Cipher.
+     * @return A Cipher instance that still has to be initialized by the caller.
+     */
+    private static Cipher borrowCipher(String algorithm) throws NoSuchAlgorithmException, NoSuchPaddingException {
+        if (CryptoExecutor.isVirtual(Thread.currentThread())) {
+            // Không tạo ThreadLocal cho virtual thread, pool sẽ bị bỏ khi request kết thúc
+            POOL_MISSES.increment();
+            return Cipher.getInstance(algorithm);
+        }
+
+        Map<String, Cipher> pool = CIPHER_POOL.get();
+        Cipher cipher = pool.get(algorithm);
+        if (cipher != null) {
+            POOL_HITS.increment();
+            return cipher;
+        }
+        POOL_MISSES.increment();
+        cipher = Cipher.getInstance(algorithm);
+        pool.put(algorithm, cipher);
+        return cipher;
+    }
 }
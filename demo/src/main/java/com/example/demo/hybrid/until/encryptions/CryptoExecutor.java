@@ -0,0 +1,125 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.until.helper.ExceptionHelper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs CPU-heavy RSA work on a pool of platform threads sized to the number of cores.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} requests run on virtual threads. Long RSA operations would
+ * then occupy carrier threads and starve the other virtual threads, so calls coming from a virtual thread are
+ * handed to this pool while the virtual thread parks. Calls from platform threads, and every call when virtual
+ * threads are disabled, run inline.
+ * <p>
+ * The thread-local pools of {@link CipherUtils}, {@link HashUtils} and {@link BlindIndexer} only pay off on
+ * long-lived threads. A virtual thread lives for one request, so {@link CipherUtils} does not pool on virtual
+ * threads and the other pools are built and dropped with the thread; RSA work routed here runs on the crypto
+ * threads and keeps reusing their pools.
+ */
+@Slf4j
+@Component
+public class CryptoExecutor {
+
+    private static final MethodHandle IS_VIRTUAL = lookupIsVirtual();
+
+    private final ExecutorService executor;
+
+    public CryptoExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                          @Value("${hybrid.crypto-executor.threads:0}") int threads) {
+        if (!virtualThreads || IS_VIRTUAL == null) {
+            this.executor = null;
+            return;
+        }
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "crypto-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("RSA work from virtual threads runs on {} crypto threads", poolSize);
+    }
+
+    /**
+     * Runs the task, on the crypto pool when called from a virtual thread.
+     *
+     * @param task The CPU-bound task.
+     * @param <T>  The type of the result.
+     * @return The result of the task.
+     * @throws EncryptionException if the task fails with a checked exception or the wait is interrupted.
+     */
+    public <T> T call(ExceptionHelper.Callable<T> task) {
+        if (executor == null || !isVirtual(Thread.currentThread())) {
+            return callInline(task);
+        }
+
+        try {
+            return executor.submit(() -> callInline(task)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EncryptionException("Interrupted while waiting for crypto task", e);
+        } catch (ExecutionException e) {
+            // Giữ nguyên exception gốc để GlobalExceptionHandler xử lý như khi chạy inline
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T callInline(ExceptionHelper.Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EncryptionException("Error executing crypto task", e);
+        }
+    }
+
+    /**
+     * Returns whether the thread is a virtual thread, always {@code false} before Java 21.
+     */
+    static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolves {@code Thread.isVirtual()}, which only exists on Java 21 and later.
+     */
+    private static MethodHandle lookupIsVirtual() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.until.constant.CacheConstant;
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Bounded cache of RSA-unwrapped AES data keys, keyed by the SHA-256 digest of the wrapped key.
+ * <p>
+ * Both rows written by one transaction share the same wrapped key, so paired and repeated reads pay for
+ * one RSA private operation instead of one per row. Key material is held in a plain byte array that is
+ * zeroed as soon as the entry expires, is evicted or is replaced.
+ */
+public class DataKeyCache {
+
+    private static final Cache<ByteBuffer, DataKeyEntry> CACHE = Caffeine.newBuilder()
+            .maximumSize(CacheConstant.DATA_KEY_CACHE_MAX_SIZE)
+            .expireAfterWrite(Duration.ofMinutes(CacheConstant.DATA_KEY_CACHE_TTL_MINUTES))
+            .removalListener((ByteBuffer digest, DataKeyEntry entry, RemovalCause cause) -> {
+                if (entry != null) {
+                    entry.destroy();
+                }
+            })
+            .recordStats()
+            .build();
+
+    /**
+     * Returns the AES key wrapped in the given bytes, running the RSA decryption only on a cache miss.
+     *
+     * @param encryptedAESKey The RSA encrypted AES key.
+     * @param privateKey      The RSA private key used for decryption.
+     * @return The decrypted AES key.
+     */
+    public static SecretKey unwrap(byte[] encryptedAESKey, PrivateKey privateKey) {
+        SecretKey cached = getIfPresent(encryptedAESKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        SecretKey aesKey = EncryptionUtil.decryptAESKeyWithRSA(encryptedAESKey, privateKey);
+        put(encryptedAESKey, aesKey);
+        return aesKey;
+    }
+
+    /**
+     * Returns the cached AES key for the given wrapped key without running any RSA operation.
+     *
+     * @param encryptedAESKey The RSA encrypted AES key.
+     * @return The AES key, or {@code null} on a cache miss.
+     */
+    public static SecretKey getIfPresent(byte[] encryptedAESKey) {
+        ValidationUtils.validateByteArray(encryptedAESKey);
+
+        DataKeyEntry entry = CACHE.getIfPresent(ByteBuffer.wrap(HashUtils.sha256(encryptedAESKey)));
+        return entry != null ? entry.toSecretKey() : null;
+    }
+
+    /**
+     * Stores an AES key under its wrapped form, so reads right after a write skip the RSA decryption.
+     *
+     * @param encryptedAESKey The RSA encrypted AES key.
+     * @param aesKey          The plain AES key.
+     */
+    public static void put(byte[] encryptedAESKey, SecretKey aesKey) {
+        ValidationUtils.validateByteArray(encryptedAESKey);
+        ValidationUtils.validateAESKey(aesKey);
+
+        CACHE.put(ByteBuffer.wrap(HashUtils.sha256(encryptedAESKey)), new DataKeyEntry(aesKey.getEncoded()));
+    }
+
+    /**
+     * Removes and zeroes all cached data keys.
+     */
+    public static void clear() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * Returns hit, miss and eviction statistics of the cache.
+     *
+     * @return The cache statistics.
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached data keys.
+     *
+     * @return The estimated cache size.
+     */
+    public static long size() {
+        return CACHE.estimatedSize();
+    }
+
+    /**
+     * Zeroable holder of raw key material. Readers and the removal listener synchronize on the entry,
+     * so a key is never handed out while it is being wiped.
+     */
+    private static final class DataKeyEntry {
+
+        private final byte[] material;
+
+        private boolean destroyed;
+
+        private DataKeyEntry(byte[] material) {
+            this.material = material;
+        }
+
+        private synchronized SecretKey toSecretKey() {
+            if (destroyed) {
+                return null;
+            }
+            // SecretKeySpec sao chép mảng byte, nên có thể xóa material mà không ảnh hưởng khóa đã trả về
+            return new SecretKeySpec(material, EncryptionConstant.ALGORITHM_AES);
+        }
+
+        private synchronized void destroy() {
+            Arrays.fill(material, (byte) 0);
+            destroyed = true;
+        }
+    }
+}
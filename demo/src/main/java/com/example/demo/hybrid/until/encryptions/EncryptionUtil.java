@@ -3,6 +3,10 @@ package com.example.demo.hybrid.until.encryptions;
 import com.example.demo.hybrid.until.constant.EncryptionConstant;
 import com.example.demo.hybrid.until.constant.RegexConstant;
 import com.example.demo.hybrid.until.helper.ExceptionHelper;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import com.example.demo.hybrid.until.metrics.CryptoMetrics;
+import com.example.demo.hybrid.until.validate.DecodedCiphertext;
+import com.example.demo.hybrid.until.validate.DecodedKey;
 import com.example.demo.hybrid.until.validate.ValidationUtils;
 import org.springframework.stereotype.Component;
 
@@ -10,9 +14,9 @@ import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
@@ -31,11 +35,11 @@ import java.util.Base64;
 public class EncryptionUtil {
 
     /**
-     * Encrypts data using AES algorithm with the provided AES key.
+     * Encrypts data using AES-GCM with the provided AES key.
      *
      * @param data The data to be encrypted.
      * @param key  The AES key used for encryption.
-     * @return The encrypted data as a byte array.
+     * @return The encrypted data in the {@link AesEnvelope} format.
      * @throws IllegalArgumentException if the key is null or invalid, or data is null or empty.
      */
     public static byte[] encryptDataWithAES(String data, SecretKey key) {
@@ -43,13 +47,23 @@ public class EncryptionUtil {
         ValidationUtils.validateAESKey(key);
         ValidationUtils.validateString(data);
 
-        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_AES, Cipher.ENCRYPT_MODE, key);
-        return CipherUtils.doFinal(cipher, data.getBytes());
+        byte[] plaintext = data.getBytes(StandardCharsets.UTF_8);
+        CryptoMetrics.AES_ENCRYPT.payload(plaintext.length);
+        long start = CryptoMetrics.AES_ENCRYPT.start();
+        boolean succeeded = false;
+        try {
+            byte[] envelope = AesEnvelope.seal(plaintext, key);
+            succeeded = true;
+            return envelope;
+        } finally {
+            CryptoMetrics.AES_ENCRYPT.stop(start, succeeded);
+        }
 
     }
 
     /**
-     * Decrypts data using AES algorithm with the provided AES key.
+     * Decrypts data using AES with the provided AES key when its format was not recorded. Both
+     * {@link AesEnvelope} payloads and legacy ECB ciphertexts are accepted.
      *
      * @param encryptedData The encrypted data to be decrypted.
      * @param key           The AES key used for decryption.
@@ -57,15 +71,45 @@ public class EncryptionUtil {
      * @throws IllegalArgumentException if the key is null or invalid, or encrypted data is null or empty.
      */
     public static byte[] decryptDataWithAES(byte[] encryptedData, SecretKey key) {
+        return decryptDataWithAES(encryptedData, key, null);
+    }
 
+    /**
+     * Decrypts data using AES with the provided AES key, in the format recorded for it.
+     *
+     * @param encryptedData The encrypted data to be decrypted.
+     * @param key           The AES key used for decryption.
+     * @param cipherVersion The stored format of the data, null if it was not recorded.
+     * @return The decrypted data as a byte array.
+     * @throws IllegalArgumentException if the key is null or invalid, or encrypted data is null or empty.
+     * @see AesEnvelope#isEnvelopeVersion(Byte)
+     */
+    public static byte[] decryptDataWithAES(byte[] encryptedData, SecretKey key, Byte cipherVersion) {
 
         ValidationUtils.validateAESKey(key);
         ValidationUtils.validateByteArray(encryptedData);
 
-        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_AES, Cipher.DECRYPT_MODE, key);
-        return CipherUtils.doFinal(cipher, encryptedData);
-
-
+        CryptoMetrics metrics = CryptoMetrics.AES_DECRYPT;
+        long start = metrics.start();
+        boolean succeeded = false;
+        try {
+            byte[] plaintext;
+            if (AesEnvelope.isEnvelopeVersion(cipherVersion)) {
+                plaintext = AesEnvelope.open(encryptedData, key);
+            } else {
+                AesEnvelope.Opened opened = AesEnvelope.openUnmarked(encryptedData, key);
+                // Gắn tag theo định dạng thực tế của bản mã, bản mã ECB cũ không được tính là AES-GCM
+                if (opened.legacy()) {
+                    metrics = CryptoMetrics.AES_LEGACY_DECRYPT;
+                }
+                plaintext = opened.plaintext();
+            }
+            succeeded = true;
+            return plaintext;
+        } finally {
+            metrics.payload(encryptedData.length);
+            metrics.stop(start, succeeded);
+        }
     }
 
     /**
@@ -81,8 +125,16 @@ public class EncryptionUtil {
         ValidationUtils.validateAESKey(aesKey);
         ValidationUtils.validateRSAKey(publicKey);
 
-        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_RSA, Cipher.ENCRYPT_MODE, publicKey);
-        return CipherUtils.doFinal(cipher, aesKey.getEncoded());
+        long start = CryptoMetrics.RSA_WRAP.start();
+        boolean succeeded = false;
+        try {
+            Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_RSA, Cipher.ENCRYPT_MODE, publicKey);
+            byte[] wrappedKey = CipherUtils.doFinal(cipher, aesKey.getEncoded());
+            succeeded = true;
+            return wrappedKey;
+        } finally {
+            CryptoMetrics.RSA_WRAP.stop(start, succeeded);
+        }
 
     }
 
@@ -100,9 +152,16 @@ public class EncryptionUtil {
         ValidationUtils.validateByteArray(encryptedAESKey);
         ValidationUtils.validateRSAKey(privateKey);
 
-        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_RSA, Cipher.DECRYPT_MODE, privateKey);
-        byte[] decryptedKey = CipherUtils.doFinal(cipher, encryptedAESKey);
-        return new SecretKeySpec(decryptedKey, EncryptionConstant.ALGORITHM_AES);
+        long start = CryptoMetrics.RSA_UNWRAP.start();
+        boolean succeeded = false;
+        try {
+            Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_RSA, Cipher.DECRYPT_MODE, privateKey);
+            byte[] decryptedKey = CipherUtils.doFinal(cipher, encryptedAESKey);
+            succeeded = true;
+            return new SecretKeySpec(decryptedKey, EncryptionConstant.ALGORITHM_AES);
+        } finally {
+            CryptoMetrics.RSA_UNWRAP.stop(start, succeeded);
+        }
 
 
     }
@@ -119,10 +178,17 @@ public class EncryptionUtil {
 
         ValidationUtils.validateFilePath(path);
 
-        byte[] keyBytes = Files.readAllBytes(Paths.get(path));
-        byte[] decodedKey = Base64.getDecoder().decode(new String(keyBytes));
-        KeyFactory keyFactory = KeyFactory.getInstance(EncryptionConstant.ALGORITHM_RSA);
-        return keyFactory.generatePublic(new X509EncodedKeySpec(decodedKey));
+        long start = CryptoMetrics.RSA_KEY_LOAD.start();
+        boolean succeeded = false;
+        try {
+            byte[] keyBytes = Files.readAllBytes(Paths.get(path));
+            byte[] decodedKey = Base64.getDecoder().decode(new String(keyBytes));
+            PublicKey publicKey = PublicKeyCache.rsaKeyFactory().generatePublic(new X509EncodedKeySpec(decodedKey));
+            succeeded = true;
+            return publicKey;
+        } finally {
+            CryptoMetrics.RSA_KEY_LOAD.stop(start, succeeded);
+        }
 
     }
 
@@ -138,15 +204,73 @@ public class EncryptionUtil {
 
         ValidationUtils.validateFilePath(path);
 
-        byte[] keyBytes = Files.readAllBytes(Paths.get(path));
-        byte[] decodedKey = Base64.getDecoder().decode(new String(keyBytes));
-        KeyFactory keyFactory = KeyFactory.getInstance(EncryptionConstant.ALGORITHM_RSA);
-        return keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodedKey));
+        long start = CryptoMetrics.RSA_KEY_LOAD.start();
+        boolean succeeded = false;
+        try {
+            byte[] keyBytes = Files.readAllBytes(Paths.get(path));
+            byte[] decodedKey = Base64.getDecoder().decode(new String(keyBytes));
+            PrivateKey privateKey = PublicKeyCache.rsaKeyFactory().generatePrivate(new PKCS8EncodedKeySpec(decodedKey));
+            succeeded = true;
+            return privateKey;
+        } finally {
+            CryptoMetrics.RSA_KEY_LOAD.stop(start, succeeded);
+        }
 
     }
 
+    /**
+     * Loads a user's public key from the key storage.
+     *
+     * @param storage The key storage holding the key.
+     * @param keyId   The id of the public key.
+     * @return The PublicKey object.
+     * @throws IOException if the key cannot be read.
+     */
+    public static PublicKey loadPublicKey(KeyStorage storage, String keyId)
+            throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
+
+        ValidationUtils.validateObject(storage);
+
+        long start = CryptoMetrics.RSA_KEY_LOAD.start();
+        boolean succeeded = false;
+        try {
+            PublicKey publicKey = PublicKeyCache.rsaKeyFactory()
+                    .generatePublic(new X509EncodedKeySpec(storage.read(keyId)));
+            succeeded = true;
+            return publicKey;
+        } finally {
+            CryptoMetrics.RSA_KEY_LOAD.stop(start, succeeded);
+        }
+    }
+
+    /**
+     * Loads a user's private key from the key storage.
+     *
+     * @param storage The key storage holding the key.
+     * @param keyId   The id of the private key.
+     * @return The PrivateKey object.
+     * @throws IOException if the key cannot be read.
+     */
+    public static PrivateKey loadPrivateKey(KeyStorage storage, String keyId)
+            throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
+
+        ValidationUtils.validateObject(storage);
+
+        long start = CryptoMetrics.RSA_KEY_LOAD.start();
+        boolean succeeded = false;
+        try {
+            PrivateKey privateKey = PublicKeyCache.rsaKeyFactory()
+                    .generatePrivate(new PKCS8EncodedKeySpec(storage.read(keyId)));
+            succeeded = true;
+            return privateKey;
+        } finally {
+            CryptoMetrics.RSA_KEY_LOAD.stop(start, succeeded);
+        }
+    }
+
     /**
      * Loads a public key from a Base64 encoded string.
+     * Parsed keys are cached by {@link PublicKeyCache}, so repeated keys skip ASN.1 parsing.
      *
      * @param key64 The Base64 encoded string representing the public key.
      * @return The PublicKey object.
@@ -154,13 +278,30 @@ public class EncryptionUtil {
      * @throws RuntimeException         if there is an error decoding or generating the key.
      */
     public static PublicKey loadPublicKeyFromBase64(String key64) throws InvalidKeySpecException, NoSuchAlgorithmException {
+        return loadPublicKey(ValidationUtils.decodeKey(key64));
+    }
+
+    /**
+     * Loads a public key from an already decoded X.509 key.
+     * Parsed keys are cached by {@link PublicKeyCache}, so repeated keys skip ASN.1 parsing.
+     *
+     * @param key The decoded public key.
+     * @return The PublicKey object.
+     * @throws InvalidKeySpecException if the bytes are not a valid RSA public key.
+     */
+    public static PublicKey loadPublicKey(DecodedKey key) throws InvalidKeySpecException, NoSuchAlgorithmException {
 
-        ValidationUtils.validateBase64String(key64);
+        ValidationUtils.validateObject(key);
 
-        byte[] decodedKey = Base64.getDecoder().decode(key64);
-        X509EncodedKeySpec spec = new X509EncodedKeySpec(decodedKey);
-        KeyFactory keyFactory = KeyFactory.getInstance(EncryptionConstant.ALGORITHM_RSA);
-        return keyFactory.generatePublic(spec);
+        long start = CryptoMetrics.RSA_KEY_PARSE.start();
+        boolean succeeded = false;
+        try {
+            PublicKey publicKey = PublicKeyCache.getOrParse(key.bytes());
+            succeeded = true;
+            return publicKey;
+        } finally {
+            CryptoMetrics.RSA_KEY_PARSE.stop(start, succeeded);
+        }
 
     }
 
@@ -173,13 +314,30 @@ public class EncryptionUtil {
      * @throws RuntimeException         if there is an error decoding or generating the key.
      */
     public static PrivateKey loadPrivateKeyFromBase64(String key64) throws InvalidKeySpecException, NoSuchAlgorithmException {
+        return loadPrivateKey(ValidationUtils.decodeKey(key64));
+    }
+
+    /**
+     * Loads a private key from an already decoded PKCS#8 key.
+     *
+     * @param key The decoded private key.
+     * @return The PrivateKey object.
+     * @throws InvalidKeySpecException if the bytes are not a valid RSA private key.
+     */
+    public static PrivateKey loadPrivateKey(DecodedKey key) throws InvalidKeySpecException, NoSuchAlgorithmException {
 
-        ValidationUtils.validateBase64String(key64);
+        ValidationUtils.validateObject(key);
 
-        byte[] decodedKey = Base64.getDecoder().decode(key64);
-        PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(decodedKey);
-        KeyFactory keyFactory = KeyFactory.getInstance(EncryptionConstant.ALGORITHM_RSA);
-        return keyFactory.generatePrivate(spec);
+        long start = CryptoMetrics.RSA_KEY_PARSE.start();
+        boolean succeeded = false;
+        try {
+            PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(key.bytes());
+            PrivateKey privateKey = PublicKeyCache.rsaKeyFactory().generatePrivate(spec);
+            succeeded = true;
+            return privateKey;
+        } finally {
+            CryptoMetrics.RSA_KEY_PARSE.stop(start, succeeded);
+        }
 
     }
 
@@ -195,9 +353,18 @@ public class EncryptionUtil {
         ValidationUtils.validateRSAKey(publicKey);
         ValidationUtils.validateString(data);
 
-        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_RSA, Cipher.ENCRYPT_MODE, publicKey);
-        byte[] encryptedBytes = CipherUtils.doFinal(cipher, data.getBytes());
-        return Base64.getEncoder().encodeToString(encryptedBytes);
+        byte[] plaintext = data.getBytes();
+        CryptoMetrics.RSA_ENCRYPT.payload(plaintext.length);
+        long start = CryptoMetrics.RSA_ENCRYPT.start();
+        boolean succeeded = false;
+        try {
+            Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_RSA, Cipher.ENCRYPT_MODE, publicKey);
+            byte[] encryptedBytes = CipherUtils.doFinal(cipher, plaintext);
+            succeeded = true;
+            return Base64.getEncoder().encodeToString(encryptedBytes);
+        } finally {
+            CryptoMetrics.RSA_ENCRYPT.stop(start, succeeded);
+        }
 
     }
 
@@ -211,12 +378,33 @@ public class EncryptionUtil {
      */
     public static String decryptDataWithRSA(String encryptedData, PrivateKey privateKey) {
         ValidationUtils.validateRSAKey(privateKey);
-        ValidationUtils.validateBase64String(encryptedData);
+        return decryptDataWithRSA(ValidationUtils.decodeCiphertext(encryptedData), privateKey);
+    }
 
-        Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_RSA, Cipher.DECRYPT_MODE, privateKey);
-        byte[] decodedBytes = Base64.getDecoder().decode(encryptedData);
-        byte[] decryptedBytes = CipherUtils.doFinal(cipher, decodedBytes);
-        return new String(decryptedBytes);
+    /**
+     * Decrypts already decoded ciphertext using RSA algorithm with the provided RSA private key.
+     *
+     * @param encryptedData The decoded encrypted data.
+     * @param privateKey    The RSA private key used for decryption.
+     * @return The decrypted data as a string.
+     * @throws IllegalArgumentException if the RSA private key or the encrypted data is null.
+     */
+    public static String decryptDataWithRSA(DecodedCiphertext encryptedData, PrivateKey privateKey) {
+        ValidationUtils.validateRSAKey(privateKey);
+        ValidationUtils.validateObject(encryptedData);
+
+        byte[] decodedBytes = encryptedData.bytes();
+        CryptoMetrics.RSA_DECRYPT.payload(decodedBytes.length);
+        long start = CryptoMetrics.RSA_DECRYPT.start();
+        boolean succeeded = false;
+        try {
+            Cipher cipher = CipherUtils.getCipher(EncryptionConstant.ALGORITHM_RSA, Cipher.DECRYPT_MODE, privateKey);
+            byte[] decryptedBytes = CipherUtils.doFinal(cipher, decodedBytes);
+            succeeded = true;
+            return new String(decryptedBytes);
+        } finally {
+            CryptoMetrics.RSA_DECRYPT.stop(start, succeeded);
+        }
 
     }
 
@@ -0,0 +1,38 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.until.constant.CacheConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class for computing message digests with per-thread {@link MessageDigest} instances.
+ */
+public class HashUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashUtils.class);
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(HashUtils::newSha256);
+
+    /**
+     * Computes the SHA-256 digest of the given bytes.
+     *
+     * @param data The data to digest.
+     * @return The 32 byte digest.
+     */
+    public static byte[] sha256(byte[] data) {
+        return SHA_256.get().digest(data);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance(CacheConstant.DIGEST_SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("Digest algorithm not found: {}", CacheConstant.DIGEST_SHA_256);
+            throw new EncryptionException("Digest algorithm not found", e);
+        }
+    }
+}
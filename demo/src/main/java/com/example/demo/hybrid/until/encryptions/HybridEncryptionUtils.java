@@ -6,6 +6,7 @@ import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.KeyFactory;
@@ -26,15 +27,11 @@ public class HybridEncryptionUtils {
     }
 
     public byte[] encryptDataWithAES(String data, SecretKey key) throws Exception {
-        Cipher cipher = Cipher.getInstance(EncryptionConstant.ALGORITHM_AES);
-        cipher.init(Cipher.ENCRYPT_MODE, key);
-        return cipher.doFinal(data.getBytes());
+        return AesEnvelope.seal(data.getBytes(StandardCharsets.UTF_8), key);
     }
 
     public byte[] decryptDataWithAES(byte[] encryptedData, SecretKey key) throws Exception {
-        Cipher cipher = Cipher.getInstance(EncryptionConstant.ALGORITHM_AES);
-        cipher.init(Cipher.DECRYPT_MODE, key);
-        return cipher.doFinal(encryptedData);
+        return AesEnvelope.open(encryptedData, key);
     }
 
     public byte[] encryptAESKeyWithRSA(SecretKey aesKey, PublicKey publicKey) throws Exception {
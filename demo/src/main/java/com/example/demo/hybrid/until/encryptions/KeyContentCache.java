@@ -0,0 +1,87 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.until.constant.CacheConstant;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * In-memory cache of key files as served by the key endpoint, keyed by key id.
+ * <p>
+ * Each entry holds the Base64 content, a strong ETag derived from its SHA-256 digest and the time the key was written,
+ * so repeated downloads and revalidations are answered without touching the key storage. Entries are invalidated
+ * whenever a key pair is saved.
+ */
+public class KeyContentCache {
+
+    private static final Cache<String, KeyContent> CACHE = Caffeine.newBuilder()
+            .maximumSize(CacheConstant.KEY_CONTENT_CACHE_MAX_SIZE)
+            .expireAfterWrite(Duration.ofMinutes(CacheConstant.KEY_CONTENT_CACHE_TTL_MINUTES))
+            .recordStats()
+            .build();
+
+    /**
+     * Returns the served form of the key stored under the given id, reading the key storage only on a cache miss.
+     *
+     * @param storage The key storage holding the key.
+     * @param keyId   The key id.
+     * @return The cached key content with its validators.
+     * @throws java.nio.file.NoSuchFileException if no key is stored under the id.
+     * @throws IOException                       if the key cannot be read.
+     */
+    public static KeyContent get(KeyStorage storage, String keyId) throws IOException {
+        ValidationUtils.validateFilePath(keyId);
+
+        KeyContent cached = CACHE.getIfPresent(keyId);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] content = Base64.getEncoder().encode(storage.read(keyId));
+        // Thời điểm ghi khóa do key storage lưu, không đổi khi cache nạp lại hoặc khi chạy nhiều instance
+        KeyContent loaded = new KeyContent(content,
+                "\"" + HexFormat.of().formatHex(HashUtils.sha256(content)) + "\"",
+                storage.lastModified(keyId).truncatedTo(ChronoUnit.SECONDS));
+        CACHE.put(keyId, loaded);
+        return loaded;
+    }
+
+    /**
+     * Removes the cached content for the given ids, e.g. after the keys have been rewritten.
+     *
+     * @param keyIds The key ids to invalidate.
+     */
+    public static void invalidate(String... keyIds) {
+        for (String keyId : keyIds) {
+            CACHE.invalidate(keyId);
+        }
+    }
+
+    /**
+     * Returns statistics of the cache.
+     *
+     * @return The cache statistics.
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    /**
+     * A served key. The content array is shared between requests and must not be modified.
+     *
+     * @param content      The Base64 encoded key.
+     * @param etag         The quoted strong entity tag of the content.
+     * @param lastModified The time the key was written, in whole seconds as sent in HTTP dates.
+     */
+    public record KeyContent(byte[] content, String etag, Instant lastModified) {
+    }
+}
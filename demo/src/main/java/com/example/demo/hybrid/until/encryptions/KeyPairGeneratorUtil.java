@@ -4,19 +4,19 @@ import com.example.demo.hybrid.exception.EncryptionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.keystore.FileKeyStorage;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import com.example.demo.hybrid.until.metrics.CryptoMetrics;
 import com.example.demo.hybrid.until.validate.ValidationUtils;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
-import java.security.PrivateKey;
-import java.security.PublicKey;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Utility class for generating and saving key pairs.
@@ -36,35 +36,82 @@ public class KeyPairGeneratorUtil {
      */
     public static void generateAndSaveKeyPair(String publicKeyPath, String privateKeyPath) {
         try {
-            // Validate file paths
-            ValidationUtils.validateFilePath(publicKeyPath);
-            ValidationUtils.validateFilePath(privateKeyPath);
+            // Khởi tạo KeyPairGenerator với thuật toán RSA
+            saveKeyPair(generateKeyRSA(), publicKeyPath, privateKeyPath);
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("Không tìm thấy thuật toán tạo khóa RSA: {}", e.getMessage());
+            throw new EncryptionException("Không tìm thấy thuật toán tạo khóa RSA",e);
+        }
+    }
 
-            // Tạo đường dẫn cho tệp khóa công khai và khóa riêng
-            Paths.get(publicKeyPath).getParent().toFile().mkdirs();
-            Paths.get(privateKeyPath).getParent().toFile().mkdirs();
+    /**
+     * Saves an already generated RSA key pair to the specified file paths, e.g. one taken from {@link KeyPairPool}.
+     *
+     * @param pair           The key pair to save.
+     * @param publicKeyPath  The file path to save the public key.
+     * @param privateKeyPath The file path to save the private key.
+     * @throws EncryptionException If an I/O error occurs while writing the keys to files.
+     */
+    public static void saveKeyPair(KeyPair pair, String publicKeyPath, String privateKeyPath) {
+        saveKeyPair(new FileKeyStorage(), pair, publicKeyPath, privateKeyPath);
+    }
 
-            // Khởi tạo KeyPairGenerator với thuật toán RSA
-            KeyPairGenerator keyGen = KeyPairGenerator.getInstance(EncryptionConstant.ALGORITHM_RSA);
-            keyGen.initialize(2048); // Khóa 2048-bit cho RSA
-            KeyPair pair = keyGen.generateKeyPair();
+    /**
+     * Saves an already generated RSA key pair to the key storage.
+     *
+     * @param storage      The key storage to write to.
+     * @param pair         The key pair to save.
+     * @param publicKeyId  The id to save the public key under.
+     * @param privateKeyId The id to save the private key under.
+     * @throws EncryptionException If an I/O error occurs while writing the keys.
+     */
+    public static void saveKeyPair(KeyStorage storage, KeyPair pair, String publicKeyId, String privateKeyId) {
+        Map<String, byte[]> encodedKeys = new LinkedHashMap<>();
+        addKeyPair(encodedKeys, pair, publicKeyId, privateKeyId);
+        saveKeyPairs(storage, encodedKeys);
+    }
 
-            // Lấy PublicKey và PrivateKey từ KeyPair
-            PublicKey publicKey = pair.getPublic();
-            PrivateKey privateKey = pair.getPrivate();
+    /**
+     * Adds the encoded keys of a key pair to a group saved later with {@link #saveKeyPairs(KeyStorage, Map)}.
+     *
+     * @param encodedKeys  The group of encoded keys by key id, in write order.
+     * @param pair         The key pair to add.
+     * @param publicKeyId  The id to save the public key under.
+     * @param privateKeyId The id to save the private key under.
+     */
+    public static void addKeyPair(Map<String, byte[]> encodedKeys, KeyPair pair, String publicKeyId,
+                                  String privateKeyId) {
+        // Validate key ids
+        ValidationUtils.validateFilePath(publicKeyId);
+        ValidationUtils.validateFilePath(privateKeyId);
+        ValidationUtils.validateObject(pair);
 
-            // Lưu khóa công khai dưới dạng chuỗi Base64
-            String publicKeyContent = Base64.getEncoder().encodeToString(publicKey.getEncoded());
-            Files.write(Paths.get(publicKeyPath), publicKeyContent.getBytes());
+        // Ghi khóa riêng trước để khóa công khai chỉ tồn tại khi cặp khóa đã đầy đủ
+        encodedKeys.put(privateKeyId, pair.getPrivate().getEncoded());
+        encodedKeys.put(publicKeyId, pair.getPublic().getEncoded());
+    }
 
-            // Lưu khóa riêng dưới dạng chuỗi Base64
-            String privateKeyContent = Base64.getEncoder().encodeToString(privateKey.getEncoded());
-            Files.write(Paths.get(privateKeyPath), privateKeyContent.getBytes());
+    /**
+     * Saves a group of encoded keys built with {@link #addKeyPair(Map, KeyPair, String, String)} in one storage
+     * write, so the whole group is forced to disk once.
+     *
+     * @param storage     The key storage to write to.
+     * @param encodedKeys The encoded keys by key id, in write order.
+     * @throws EncryptionException If an I/O error occurs while writing the keys.
+     */
+    public static void saveKeyPairs(KeyStorage storage, Map<String, byte[]> encodedKeys) {
+        try {
+            ValidationUtils.validateObject(storage);
+            ValidationUtils.validateObject(encodedKeys);
 
-            logger.info("RSA Key Pair đã được tạo và lưu trữ thành công.");
-        } catch (NoSuchAlgorithmException e) {
-            logger.error("Không tìm thấy thuật toán tạo khóa RSA: {}", e.getMessage());
-            throw new EncryptionException("Không tìm thấy thuật toán tạo khóa RSA",e);
+            storage.writeAll(encodedKeys);
+
+            // Xóa khóa cũ khỏi cache sau khi ghi đè khóa
+            String[] keyIds = encodedKeys.keySet().toArray(new String[0]);
+            UserKeyCache.invalidate(keyIds);
+            KeyContentCache.invalidate(keyIds);
+
+            logger.info("{} RSA Key Pair đã được tạo và lưu trữ thành công.", encodedKeys.size() / 2);
         } catch (IOException e) {
             logger.error("Lỗi I/O khi lưu khóa RSA: {}", e.getMessage());
             throw new EncryptionException("Lỗi I/O khi lưu khóa RSA",e);
@@ -78,13 +125,19 @@ public class KeyPairGeneratorUtil {
      * @throws NoSuchAlgorithmException If the algorithm for generating the key pair is not available.
      */
     public static KeyPair generateKeyRSA() throws NoSuchAlgorithmException {
+        long start = CryptoMetrics.RSA_KEYGEN.start();
+        boolean succeeded = false;
         try {
             KeyPairGenerator keyGen = KeyPairGenerator.getInstance(EncryptionConstant.ALGORITHM_RSA);
             keyGen.initialize(2048);
-            return keyGen.generateKeyPair();
+            KeyPair keyPair = keyGen.generateKeyPair();
+            succeeded = true;
+            return keyPair;
         } catch (NoSuchAlgorithmException e) {
             logger.error("Không tìm thấy thuật toán tạo khóa RSA: {}", e.getMessage());
             throw new EncryptionException("Không tìm thấy thuật toán tạo khóa RSA",e);
+        } finally {
+            CryptoMetrics.RSA_KEYGEN.stop(start, succeeded);
         }
     }
 
@@ -95,13 +148,19 @@ public class KeyPairGeneratorUtil {
      * @throws NoSuchAlgorithmException If the algorithm for generating the AES key is not available.
      */
     public SecretKey generateAESKey() throws NoSuchAlgorithmException {
+        long start = CryptoMetrics.AES_KEYGEN.start();
+        boolean succeeded = false;
         try {
             KeyGenerator keyGen = KeyGenerator.getInstance(EncryptionConstant.ALGORITHM_AES);
             keyGen.init(256);
-            return keyGen.generateKey();
+            SecretKey secretKey = keyGen.generateKey();
+            succeeded = true;
+            return secretKey;
         } catch (NoSuchAlgorithmException e) {
             logger.error("Không tìm thấy thuật toán tạo khóa AES: {}", e.getMessage());
             throw new EncryptionException("Không tìm thấy thuật toán tạo khóa AES: {}",e);
+        } finally {
+            CryptoMetrics.AES_KEYGEN.stop(start, succeeded);
         }
     }
 }
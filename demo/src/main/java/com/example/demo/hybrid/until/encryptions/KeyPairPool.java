@@ -0,0 +1,176 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a number of pre-generated RSA key pairs ready for user registration.
+ * <p>
+ * RSA key generation is slow and has a long tail, so pairs are generated on a background thread and handed
+ * out from a bounded queue. When the pool is empty, {@link #take()} falls back to generating a pair on the
+ * {@link CryptoExecutor}.
+ */
+@Slf4j
+@Component
+public class KeyPairPool {
+
+    private final BlockingQueue<KeyPair> pool;
+
+    private final ExecutorService refillExecutor;
+
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+    private final LongAdder poolHits = new LongAdder();
+
+    private final LongAdder poolMisses = new LongAdder();
+
+    private final LongAdder generatedPairs = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    @Autowired
+    private CryptoExecutor cryptoExecutor;
+
+    public KeyPairPool(@Value("${hybrid.key-pair-pool.capacity:16}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Key pair pool capacity must be at least 1");
+        }
+        this.pool = new ArrayBlockingQueue<>(capacity);
+        this.refillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "key-pair-pool-refill");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduleRefill();
+    }
+
+    @PreDestroy
+    public void stop() {
+        refillExecutor.shutdownNow();
+    }
+
+    /**
+     * Takes a ready key pair from the pool, or generates one when the pool is empty.
+     *
+     * @return A freshly generated RSA key pair that has not been handed out before.
+     * @throws EncryptionException if the RSA algorithm is not available.
+     */
+    public KeyPair take() {
+        long start = System.nanoTime();
+        try {
+            KeyPair pair = pool.poll();
+            if (pair != null) {
+                poolHits.increment();
+                return pair;
+            }
+            poolMisses.increment();
+            return cryptoExecutor.call(this::generate);
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+            scheduleRefill();
+        }
+    }
+
+    /**
+     * Returns the number of key pairs currently ready in the pool.
+     *
+     * @return The pool depth.
+     */
+    public int depth() {
+        return pool.size();
+    }
+
+    /**
+     * Returns the number of requests served from the pool.
+     *
+     * @return The pool hit count.
+     */
+    public long hits() {
+        return poolHits.sum();
+    }
+
+    /**
+     * Returns the number of requests that had to generate a key pair inline.
+     *
+     * @return The pool miss count.
+     */
+    public long misses() {
+        return poolMisses.sum();
+    }
+
+    /**
+     * Returns the number of key pairs generated by the background refill.
+     *
+     * @return The refill count, whose rate of change is the refill rate.
+     */
+    public long refilled() {
+        return generatedPairs.sum();
+    }
+
+    /**
+     * Returns the total time callers spent in {@link #take()}.
+     *
+     * @return The accumulated wait time in nanoseconds.
+     */
+    public long totalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    private void scheduleRefill() {
+        if (pool.remainingCapacity() > 0 && refilling.compareAndSet(false, true)) {
+            try {
+                refillExecutor.execute(this::refill);
+            } catch (RuntimeException e) {
+                // Executor đã dừng khi ứng dụng tắt
+                refilling.set(false);
+            }
+        }
+    }
+
+    private void refill() {
+        boolean failed = false;
+        try {
+            while (pool.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                if (pool.offer(generate())) {
+                    generatedPairs.increment();
+                }
+            }
+        } catch (EncryptionException e) {
+            failed = true;
+            log.error("Error refilling key pair pool: {}", e.getMessage());
+        } finally {
+            refilling.set(false);
+        }
+        // Có thể có cặp khóa bị lấy ra sau vòng lặp nhưng trước khi cờ được đặt lại
+        if (!failed && !Thread.currentThread().isInterrupted()) {
+            scheduleRefill();
+        }
+    }
+
+    private KeyPair generate() {
+        try {
+            return KeyPairGeneratorUtil.generateKeyRSA();
+        } catch (NoSuchAlgorithmException e) {
+            throw new EncryptionException("Không tìm thấy thuật toán tạo khóa RSA", e);
+        }
+    }
+}
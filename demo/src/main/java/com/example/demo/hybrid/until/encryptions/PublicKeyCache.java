@@ -0,0 +1,92 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.until.constant.CacheConstant;
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * Bounded cache of parsed RSA public keys, keyed by the SHA-256 digest of their X.509 encoding.
+ * <p>
+ * Clients send the same Base64 public keys over and over, so repeat callers skip the ASN.1 parsing done by
+ * {@link KeyFactory#generatePublic(java.security.spec.KeySpec)}. The RSA {@link KeyFactory} itself is also
+ * cached per thread, since it is not guaranteed to be thread-safe.
+ */
+public class PublicKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicKeyCache.class);
+
+    private static final Cache<ByteBuffer, PublicKey> CACHE = Caffeine.newBuilder()
+            .maximumSize(CacheConstant.PUBLIC_KEY_CACHE_MAX_SIZE)
+            .recordStats()
+            .build();
+
+    private static final ThreadLocal<KeyFactory> RSA_KEY_FACTORY = ThreadLocal.withInitial(PublicKeyCache::newKeyFactory);
+
+    /**
+     * Returns the public key for the given X.509 encoded bytes, parsing it only on a cache miss.
+     *
+     * @param encodedKey The X.509 encoded public key bytes.
+     * @return The PublicKey object.
+     * @throws InvalidKeySpecException if the bytes are not a valid RSA public key.
+     */
+    public static PublicKey getOrParse(byte[] encodedKey) throws InvalidKeySpecException {
+        ByteBuffer digest = ByteBuffer.wrap(HashUtils.sha256(encodedKey));
+
+        PublicKey cached = CACHE.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        PublicKey parsed = rsaKeyFactory().generatePublic(new X509EncodedKeySpec(encodedKey));
+        CACHE.put(digest, parsed);
+        return parsed;
+    }
+
+    /**
+     * Returns the calling thread's RSA KeyFactory.
+     *
+     * @return The cached RSA KeyFactory.
+     */
+    public static KeyFactory rsaKeyFactory() {
+        return RSA_KEY_FACTORY.get();
+    }
+
+    /**
+     * Returns hit, miss and eviction statistics of the cache.
+     *
+     * @return The cache statistics.
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached keys.
+     *
+     * @return The estimated cache size.
+     */
+    public static long size() {
+        return CACHE.estimatedSize();
+    }
+
+    private static KeyFactory newKeyFactory() {
+        try {
+            return KeyFactory.getInstance(EncryptionConstant.ALGORITHM_RSA);
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("Key factory algorithm not found: {}", EncryptionConstant.ALGORITHM_RSA);
+            throw new EncryptionException("Key factory algorithm not found", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.helper.ExceptionHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Objects;
+
+/**
+ * The server RSA key pair, plus the private key it replaced while a key rotation is in progress.
+ * <p>
+ * New data keys are always wrapped with the current public key. Data keys that were wrapped before the
+ * rotation are unwrapped with the previous private key until the re-encryption job has re-wrapped them.
+ */
+@Slf4j
+@Component
+public class ServerKeyRing {
+
+    private final PublicKey currentPublicKey;
+
+    private final PrivateKey currentPrivateKey;
+
+    private final PrivateKey previousPrivateKey;
+
+    @Autowired
+    private CryptoExecutor cryptoExecutor;
+
+    @Autowired
+    public ServerKeyRing(@Value("${hybrid.reencryption.previous-private-key-path:}") String previousPrivateKeyPath,
+                         @Value("${hybrid.blind-index.secret:}") String blindIndexSecret) {
+        this.currentPublicKey = ExceptionHelper.executeWithExceptionHandling(
+                () -> new EncryptionUtil().loadPublicKey(EncryptionConstant.PUBLIC_KEY_PATH),
+                "Error loading public key from file"
+        );
+        this.currentPrivateKey = ExceptionHelper.executeWithExceptionHandling(
+                () -> new EncryptionUtil().loadPrivateKey(EncryptionConstant.PRIVATE_KEY_PATH),
+                "Error loading private key from file"
+        );
+
+        if (previousPrivateKeyPath == null || previousPrivateKeyPath.isBlank()) {
+            this.previousPrivateKey = null;
+        } else {
+            // Blind index không được phụ thuộc vào khóa server, nếu không sẽ thay đổi khi xoay vòng khóa
+            if (blindIndexSecret == null || blindIndexSecret.isBlank()) {
+                throw new IllegalStateException(
+                        "hybrid.blind-index.secret must be set before rotating the server key pair");
+            }
+            this.previousPrivateKey = ExceptionHelper.executeWithExceptionHandling(
+                    () -> new EncryptionUtil().loadPrivateKey(previousPrivateKeyPath),
+                    "Error loading previous private key from file"
+            );
+            log.info("Server key rotation in progress, previous private key loaded from {}", previousPrivateKeyPath);
+        }
+    }
+
+    /**
+     * Creates a key ring from keys that are already loaded.
+     *
+     * @param current            The current server key pair.
+     * @param previousPrivateKey The private key being rotated out, or {@code null}.
+     * @param cryptoExecutor     The executor that runs the RSA decryptions.
+     */
+    public ServerKeyRing(KeyPair current, PrivateKey previousPrivateKey, CryptoExecutor cryptoExecutor) {
+        this.currentPublicKey = current.getPublic();
+        this.currentPrivateKey = current.getPrivate();
+        this.previousPrivateKey = previousPrivateKey;
+        this.cryptoExecutor = cryptoExecutor;
+    }
+
+    public PublicKey currentPublicKey() {
+        return currentPublicKey;
+    }
+
+    public PrivateKey currentPrivateKey() {
+        return currentPrivateKey;
+    }
+
+    public boolean hasPreviousKey() {
+        return Objects.nonNull(previousPrivateKey);
+    }
+
+    /**
+     * Unwraps a data key with the current private key, falling back to the previous one during a rotation.
+     * Unwrapped keys are cached by {@link DataKeyCache}; on a miss the RSA decryption runs on the {@link CryptoExecutor}.
+     *
+     * @param encryptedAESKey The RSA wrapped AES key.
+     * @return The AES key.
+     * @throws EncryptionException if neither key can unwrap it.
+     */
+    public SecretKey unwrap(byte[] encryptedAESKey) {
+        SecretKey cached = DataKeyCache.getIfPresent(encryptedAESKey);
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+        return cryptoExecutor.call(() -> unwrapWithFallback(encryptedAESKey));
+    }
+
+    private SecretKey unwrapWithFallback(byte[] encryptedAESKey) {
+        try {
+            return DataKeyCache.unwrap(encryptedAESKey, currentPrivateKey);
+        } catch (EncryptionException e) {
+            if (!hasPreviousKey()) {
+                throw e;
+            }
+            return DataKeyCache.unwrap(encryptedAESKey, previousPrivateKey);
+        }
+    }
+
+    /**
+     * Unwraps a data key without caching it and reports whether it was wrapped with the previous key.
+     * Used by bulk jobs that touch every key once.
+     *
+     * @param encryptedAESKey The RSA wrapped AES key.
+     * @return The AES key and whether it still has to be re-wrapped.
+     * @throws EncryptionException if neither key can unwrap it.
+     */
+    public UnwrappedKey unwrapForRotation(byte[] encryptedAESKey) {
+        return cryptoExecutor.call(() -> unwrapUncached(encryptedAESKey));
+    }
+
+    private UnwrappedKey unwrapUncached(byte[] encryptedAESKey) {
+        try {
+            return new UnwrappedKey(EncryptionUtil.decryptAESKeyWithRSA(encryptedAESKey, currentPrivateKey), false);
+        } catch (EncryptionException e) {
+            if (!hasPreviousKey()) {
+                throw e;
+            }
+            return new UnwrappedKey(EncryptionUtil.decryptAESKeyWithRSA(encryptedAESKey, previousPrivateKey), true);
+        }
+    }
+
+    public record UnwrappedKey(SecretKey key, boolean wrappedWithPreviousKey) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.hybrid.until.encryptions;
+
+import com.example.demo.hybrid.until.constant.CacheConstant;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.time.Duration;
+
+/**
+ * In-memory cache of users' RSA keys, keyed by key id.
+ * <p>
+ * Entries are bounded in number, expire after {@link CacheConstant#USER_KEY_CACHE_TTL_MINUTES} and are
+ * invalidated by {@link KeyPairGeneratorUtil#saveKeyPair(KeyStorage, java.security.KeyPair, String, String)}
+ * whenever a key is rewritten, so lookups on the hot path do not touch the disk.
+ */
+public class UserKeyCache {
+
+    private static final Cache<String, PublicKey> PUBLIC_KEYS = Caffeine.newBuilder()
+            .maximumSize(CacheConstant.USER_KEY_CACHE_MAX_SIZE)
+            .expireAfterWrite(Duration.ofMinutes(CacheConstant.USER_KEY_CACHE_TTL_MINUTES))
+            .recordStats()
+            .build();
+
+    private static final Cache<String, PrivateKey> PRIVATE_KEYS = Caffeine.newBuilder()
+            .maximumSize(CacheConstant.USER_KEY_CACHE_MAX_SIZE)
+            .expireAfterWrite(Duration.ofMinutes(CacheConstant.USER_KEY_CACHE_TTL_MINUTES))
+            .recordStats()
+            .build();
+
+    /**
+     * Returns the public key stored under the given id, reading the key storage only on a cache miss.
+     *
+     * @param storage The key storage holding the key.
+     * @param path    The id of the public key.
+     * @return The PublicKey object.
+     * @throws IOException if the key cannot be read.
+     */
+    public static PublicKey getPublicKey(KeyStorage storage, String path)
+            throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
+        ValidationUtils.validateFilePath(path);
+
+        PublicKey cached = PUBLIC_KEYS.getIfPresent(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        PublicKey loaded = EncryptionUtil.loadPublicKey(storage, path);
+        PUBLIC_KEYS.put(path, loaded);
+        return loaded;
+    }
+
+    /**
+     * Returns the private key stored under the given id, reading the key storage only on a cache miss.
+     *
+     * @param storage The key storage holding the key.
+     * @param path    The id of the private key.
+     * @return The PrivateKey object.
+     * @throws IOException if the key cannot be read.
+     */
+    public static PrivateKey getPrivateKey(KeyStorage storage, String path)
+            throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
+        ValidationUtils.validateFilePath(path);
+
+        PrivateKey cached = PRIVATE_KEYS.getIfPresent(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        PrivateKey loaded = EncryptionUtil.loadPrivateKey(storage, path);
+        PRIVATE_KEYS.put(path, loaded);
+        return loaded;
+    }
+
+    /**
+     * Removes the cached keys for the given ids, e.g. after the keys have been rewritten.
+     *
+     * @param paths The key ids to invalidate.
+     */
+    public static void invalidate(String... paths) {
+        for (String path : paths) {
+            PUBLIC_KEYS.invalidate(path);
+            PRIVATE_KEYS.invalidate(path);
+        }
+    }
+
+    /**
+     * Returns statistics of the public key cache.
+     *
+     * @return The cache statistics.
+     */
+    public static CacheStats publicKeyStats() {
+        return PUBLIC_KEYS.stats();
+    }
+
+    /**
+     * Returns statistics of the private key cache.
+     *
+     * @return The cache statistics.
+     */
+    public static CacheStats privateKeyStats() {
+        return PRIVATE_KEYS.stats();
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.demo.hybrid.until.helper;
 
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.exception.InvalidInputException;
+import com.example.demo.hybrid.until.encryptions.AesEnvelope;
 import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
 import com.example.demo.hybrid.until.encryptions.KeyPairGeneratorUtil;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
 
 import javax.crypto.SecretKey;
+import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.util.Map;
 
 /**
  * Helper class for encryption and decryption operations.
@@ -59,6 +65,57 @@ public class EncryptionHelper {
         );
     }
 
+    /**
+     * Saves an already generated RSA key pair to the specified paths.
+     *
+     * @param keyPair        The key pair to save.
+     * @param publicKeyPath  The path to save the public key.
+     * @param privateKeyPath The path to save the private key.
+     */
+    public static void saveKeyPair(KeyPair keyPair, String publicKeyPath, String privateKeyPath) {
+        ExceptionHelper.executeWithExceptionHandling(
+                () -> {
+                    KeyPairGeneratorUtil.saveKeyPair(keyPair, publicKeyPath, privateKeyPath);
+                    return null;
+                },
+                "Error saving key pair"
+        );
+    }
+
+    /**
+     * Saves an RSA key pair to the key storage.
+     *
+     * @param storage      The key storage to write to.
+     * @param keyPair      The key pair to save.
+     * @param publicKeyId  The id to save the public key under.
+     * @param privateKeyId The id to save the private key under.
+     */
+    public static void saveKeyPair(KeyStorage storage, KeyPair keyPair, String publicKeyId, String privateKeyId) {
+        ExceptionHelper.executeWithExceptionHandling(
+                () -> {
+                    KeyPairGeneratorUtil.saveKeyPair(storage, keyPair, publicKeyId, privateKeyId);
+                    return null;
+                },
+                "Error saving key pair"
+        );
+    }
+
+    /**
+     * Saves a group of encoded key pairs to the key storage in one write.
+     *
+     * @param storage     The key storage to write to.
+     * @param encodedKeys The encoded keys by key id, in write order.
+     */
+    public static void saveKeyPairs(KeyStorage storage, Map<String, byte[]> encodedKeys) {
+        ExceptionHelper.executeWithExceptionHandling(
+                () -> {
+                    KeyPairGeneratorUtil.saveKeyPairs(storage, encodedKeys);
+                    return null;
+                },
+                "Error saving key pairs"
+        );
+    }
+
 
     /**
      * Encrypts an AES key using RSA encryption.
@@ -88,6 +145,29 @@ public class EncryptionHelper {
         );
     }
 
+    /**
+     * Opens a client hybrid envelope: unwraps the session key with RSA and decrypts the AES-GCM payload.
+     * <p>
+     * Session keys are chosen by clients, so they are not cached next to the server data keys and are dropped
+     * once the payload is decrypted.
+     *
+     * @param encryptedKey The RSA wrapped session key.
+     * @param payload      The AES-GCM envelope.
+     * @param privateKey   The server RSA private key.
+     * @return The decrypted payload.
+     * @throws InvalidInputException if the payload is not an AES-GCM envelope.
+     * @throws EncryptionException   if the key cannot be unwrapped or the payload fails authentication.
+     */
+    public static byte[] openEnvelope(byte[] encryptedKey, byte[] payload, PrivateKey privateKey) {
+        // Chỉ nhận định dạng AES-GCM có xác thực, không chấp nhận bản mã ECB cũ
+        if (!AesEnvelope.hasHeader(payload)) {
+            throw new InvalidInputException("Payload must be an AES-GCM envelope");
+        }
+
+        SecretKey sessionKey = EncryptionUtil.decryptAESKeyWithRSA(encryptedKey, privateKey);
+        return EncryptionUtil.decryptDataWithAES(payload, sessionKey, AesEnvelope.VERSION_1);
+    }
+
 
 
 }
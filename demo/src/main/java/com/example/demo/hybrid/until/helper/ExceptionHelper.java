@@ -1,6 +1,9 @@
 package com.example.demo.hybrid.until.helper;
 
 import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.exception.InvalidInputException;
+import com.example.demo.hybrid.until.constant.MetricsConstant;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -16,12 +19,18 @@ public class ExceptionHelper {
      * @param errorMessage The error message to be used if an exception is thrown.
      * @param <T>          The type of the result.
      * @return The result of the callable.
-     * @throws EncryptionException If an exception occurs during the callable execution.
+     * @throws EncryptionException   If an exception occurs during the callable execution.
+     * @throws InvalidInputException If the callable rejects its input, rethrown unchanged.
      */
     public static <T> T executeWithExceptionHandling(Callable<T> callable, String errorMessage) {
         try {
             return callable.call();
+        } catch (InvalidInputException e) {
+            // Lỗi đầu vào của client, không phải lỗi mã hóa
+            throw e;
         } catch (Exception e) {
+            Metrics.counter(MetricsConstant.CRYPTO_ERRORS, MetricsConstant.TAG_EXCEPTION,
+                    e.getClass().getSimpleName()).increment();
             log.error(errorMessage, e);
             throw new EncryptionException(errorMessage, e);
         }
@@ -0,0 +1,69 @@
+package com.example.demo.hybrid.until.helper;
+
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.exception.InvalidInputException;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a transaction history page, ordered by {@code (time, id)} descending.
+ * Clients receive it as an opaque Base64url token and send it back to get the next page.
+ *
+ * @param time The time of the last row returned.
+ * @param id   The id of the last row returned.
+ */
+public record TransactionCursor(LocalDate time, long id) {
+
+    private static final int ENCODED_LENGTH = 2 * Long.BYTES;
+
+    /**
+     * Creates the cursor pointing after the given row.
+     *
+     * @param transaction The last row of a page.
+     * @return The cursor of the next page.
+     */
+    public static TransactionCursor after(TransactionHistoryEntity transaction) {
+        return new TransactionCursor(transaction.getTime(), transaction.getId());
+    }
+
+    /**
+     * Encodes the cursor as an opaque URL-safe token.
+     *
+     * @return The token.
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_LENGTH)
+                .putLong(time.toEpochDay())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token The token sent by the client.
+     * @return The cursor.
+     * @throws InvalidInputException If the token is malformed.
+     */
+    public static TransactionCursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Invalid page cursor");
+        }
+        if (bytes.length != ENCODED_LENGTH) {
+            throw new InvalidInputException("Invalid page cursor");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long epochDay = buffer.getLong();
+        long id = buffer.getLong();
+        if (epochDay < LocalDate.MIN.toEpochDay() || epochDay > LocalDate.MAX.toEpochDay() || id <= 0) {
+            throw new InvalidInputException("Invalid page cursor");
+        }
+        return new TransactionCursor(LocalDate.ofEpochDay(epochDay), id);
+    }
+}
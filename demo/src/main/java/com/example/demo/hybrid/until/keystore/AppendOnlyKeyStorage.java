@@ -0,0 +1,610 @@
+package com.example.demo.hybrid.until.keystore;
+
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Key storage that appends all keys to a few large segment files instead of writing one file per key.
+ * <p>
+ * Each record holds a key id, the encoded key, the time the key was written and a CRC32. Records are appended with
+ * a single positional write and forced to disk before the write returns, {@link #writeAll(Map)} forces once for the
+ * whole group. The directory is forced whenever a segment file is created or deleted. An in-memory index maps every
+ * key id to the position of its latest record and is rebuilt by scanning the segments at startup.
+ * A torn record at the end of the active segment is truncated, a damaged record anywhere else stops the startup
+ * instead of dropping the keys behind it. Reads are positional and take no lock.
+ * <p>
+ * Replaced records stay in their segment until a background compaction copies the live records of a mostly dead
+ * segment to the active one and deletes it. Keys that are not in the store yet are read from the per-file layout
+ * and imported on first read with the modification time of their file, the legacy files are left in place.
+ * Records written before the write time was recorded take the modification time of their segment.
+ * <p>
+ * This is the default backend, {@code hybrid.key-storage.type=append-only}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hybrid.key-storage.type", havingValue = "append-only", matchIfMissing = true)
+public class AppendOnlyKeyStorage implements KeyStorage {
+
+    // Bản ghi cũ, không có thời điểm ghi
+    private static final int RECORD_MAGIC = 0x4B530001;
+
+    private static final int RECORD_MAGIC_TIMED = 0x4B530002;
+
+    // magic (4) + độ dài id (2) + độ dài khóa (4)
+    private static final int HEADER_LENGTH = 10;
+
+    // Thời điểm ghi tính bằng mili giây, ngay sau header của bản ghi mới
+    private static final int TIME_LENGTH = 8;
+
+    private static final int CRC_LENGTH = 4;
+
+    private static final int MAX_KEY_ID_LENGTH = 0xFFFF;
+
+    private static final String SEGMENT_PREFIX = "keystore-";
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    private final double compactionThreshold;
+
+    private final long compactionIntervalMs;
+
+    private final KeyStorage legacyStorage;
+
+    // Mọi thay đổi của index đều thực hiện khi giữ appendLock
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final ScheduledExecutorService compactionExecutor;
+
+    private volatile Segment activeSegment;
+
+    public AppendOnlyKeyStorage(@Value("${hybrid.key-storage.directory:keys/store}") String directory,
+                                @Value("${hybrid.key-storage.segment-size:67108864}") long segmentSize,
+                                @Value("${hybrid.key-storage.compaction-threshold:0.5}") double compactionThreshold,
+                                @Value("${hybrid.key-storage.compaction-interval-ms:600000}") long compactionIntervalMs)
+            throws IOException {
+        this(Paths.get(directory), segmentSize, compactionThreshold, compactionIntervalMs, new FileKeyStorage());
+    }
+
+    public AppendOnlyKeyStorage(Path directory, long segmentSize, double compactionThreshold,
+                                long compactionIntervalMs, KeyStorage legacyStorage) throws IOException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Key storage segment size must be positive");
+        }
+        if (compactionThreshold < 0 || compactionThreshold > 1) {
+            throw new IllegalArgumentException("Key storage compaction threshold must be between 0 and 1");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        this.compactionIntervalMs = compactionIntervalMs;
+        this.legacyStorage = legacyStorage;
+        this.compactionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "key-storage-compaction");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        FileSyncUtils.createDirectories(directory);
+        openSegments();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (compactionIntervalMs > 0) {
+            compactionExecutor.scheduleWithFixedDelay(this::compactQuietly,
+                    compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        compactionExecutor.shutdownNow();
+        appendLock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean exists(String keyId) {
+        ValidationUtils.validateFilePath(keyId);
+        return index.containsKey(keyId) || legacyStorage.exists(keyId);
+    }
+
+    @Override
+    public byte[] read(String keyId) throws IOException {
+        ValidationUtils.validateFilePath(keyId);
+
+        Location location = index.get(keyId);
+        while (location != null) {
+            try {
+                return location.segment().read(location.valueOffset(), location.valueLength());
+            } catch (ClosedChannelException e) {
+                // Segment vừa bị compaction xóa, đọc lại vị trí mới từ index
+                Location moved = index.get(keyId);
+                if (moved == location) {
+                    throw e;
+                }
+                location = moved;
+            }
+        }
+        return importLegacyKey(keyId);
+    }
+
+    @Override
+    public Instant lastModified(String keyId) throws IOException {
+        ValidationUtils.validateFilePath(keyId);
+
+        Location location = index.get(keyId);
+        if (location != null) {
+            return Instant.ofEpochMilli(location.writtenAt());
+        }
+        if (!legacyStorage.exists(keyId)) {
+            throw new NoSuchFileException(keyId);
+        }
+        return legacyStorage.lastModified(keyId);
+    }
+
+    @Override
+    public void write(String keyId, byte[] encodedKey) throws IOException {
+        ValidationUtils.validateFilePath(keyId);
+        ValidationUtils.validateObject(encodedKey);
+        writeAll(Map.of(keyId, encodedKey));
+    }
+
+    @Override
+    public void writeAll(Map<String, byte[]> encodedKeys) throws IOException {
+        ValidationUtils.validateObject(encodedKeys);
+        for (Map.Entry<String, byte[]> entry : encodedKeys.entrySet()) {
+            ValidationUtils.validateFilePath(entry.getKey());
+            ValidationUtils.validateObject(entry.getValue());
+        }
+
+        appendLock.lock();
+        try {
+            appendAll(encodedKeys, System.currentTimeMillis());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of keys in the store, not counting legacy keys that were never read.
+     *
+     * @return The key count.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of segment files, including the active one.
+     *
+     * @return The segment count.
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Rewrites every sealed segment whose live records take less than the compaction threshold of its size,
+     * then deletes it. Runs on a background thread, callable directly for tests and maintenance.
+     *
+     * @return The number of segments deleted.
+     * @throws IOException if a record cannot be copied; the segment is then kept.
+     */
+    public int compact() throws IOException {
+        int compacted = 0;
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment == activeSegment
+                    || segment.liveBytes.get() > segment.size() * compactionThreshold) {
+                continue;
+            }
+            compactSegment(segment);
+            compacted++;
+        }
+        return compacted;
+    }
+
+    private void compactQuietly() {
+        try {
+            int compacted = compact();
+            if (compacted > 0) {
+                log.info("Compacted {} key storage segments", compacted);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Key storage compaction failed", e);
+        }
+    }
+
+    private void compactSegment(Segment segment) throws IOException {
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            Location location = entry.getValue();
+            if (location.segment() != segment) {
+                continue;
+            }
+            byte[] encodedKey = segment.read(location.valueOffset(), location.valueLength());
+
+            appendLock.lock();
+            try {
+                // Bỏ qua khóa đã được ghi đè trong lúc compaction, bản sao giữ thời điểm ghi ban đầu
+                if (index.get(entry.getKey()) == location) {
+                    appendAll(Map.of(entry.getKey(), encodedKey), location.writtenAt());
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        }
+
+        appendLock.lock();
+        try {
+            segments.remove(segment.id);
+            segment.delete();
+            FileSyncUtils.forceDirectory(directory);
+        } finally {
+            appendLock.unlock();
+        }
+        log.debug("Deleted key storage segment {}", segment.path);
+    }
+
+    private byte[] importLegacyKey(String keyId) throws IOException {
+        if (!legacyStorage.exists(keyId)) {
+            throw new NoSuchFileException(keyId);
+        }
+        byte[] encodedKey = legacyStorage.read(keyId);
+        long writtenAt = legacyStorage.lastModified(keyId).toEpochMilli();
+
+        appendLock.lock();
+        try {
+            // Có thể luồng khác đã nhập hoặc ghi khóa mới trong lúc đọc tệp cũ
+            if (!index.containsKey(keyId)) {
+                appendAll(Map.of(keyId, encodedKey), writtenAt);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        return encodedKey;
+    }
+
+    /**
+     * Appends the records of a group, forces every segment they went to once and only then points the index to
+     * them, so readers never see a key that is not durable yet. Must hold the append lock.
+     */
+    private void appendAll(Map<String, byte[]> encodedKeys, long writtenAt) throws IOException {
+        Map<String, Location> locations = new LinkedHashMap<>();
+        Set<Segment> written = new LinkedHashSet<>();
+        for (Map.Entry<String, byte[]> entry : encodedKeys.entrySet()) {
+            Location location = append(entry.getKey(), entry.getValue(), writtenAt);
+            locations.put(entry.getKey(), location);
+            written.add(location.segment());
+        }
+        for (Segment segment : written) {
+            segment.force();
+        }
+        locations.forEach(this::updateIndex);
+    }
+
+    /**
+     * Appends a record to the active segment without forcing it, rolling to a new segment when it is full. Must hold the append lock.
+     */
+    private Location append(String keyId, byte[] encodedKey, long writtenAt) throws IOException {
+        byte[] id = keyId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_KEY_ID_LENGTH) {
+            throw new IllegalArgumentException("Key id is too long");
+        }
+        int recordLength = HEADER_LENGTH + TIME_LENGTH + id.length + encodedKey.length + CRC_LENGTH;
+
+        byte[] time = ByteBuffer.allocate(TIME_LENGTH).putLong(writtenAt).array();
+        ByteBuffer record = ByteBuffer.allocate(recordLength);
+        record.putInt(RECORD_MAGIC_TIMED).putShort((short) id.length).putInt(encodedKey.length);
+        record.put(time).put(id).put(encodedKey);
+        record.putInt(checksum(time, id, encodedKey));
+        record.flip();
+
+        Segment segment = activeSegment;
+        if (segment.size() > 0 && segment.size() + recordLength > segmentSize) {
+            segment = rollSegment();
+        }
+        long offset = segment.append(record);
+        return new Location(segment, offset + HEADER_LENGTH + TIME_LENGTH + id.length, encodedKey.length,
+                recordLength, writtenAt);
+    }
+
+    /**
+     * Points a key id to a new record and updates the live byte counts. Must hold the append lock.
+     */
+    private void updateIndex(String keyId, Location location) {
+        location.segment().liveBytes.addAndGet(location.recordLength());
+        Location previous = index.put(keyId, location);
+        if (previous != null) {
+            previous.segment().liveBytes.addAndGet(-previous.recordLength());
+        }
+    }
+
+    private Segment rollSegment() throws IOException {
+        int nextId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Segment segment = new Segment(nextId, directory.resolve(segmentFileName(nextId)));
+        // Segment mới chỉ còn sau khi mất điện nếu thư mục đã được fsync, trước khi có bản ghi nào được xác nhận
+        FileSyncUtils.forceDirectory(directory);
+        segments.put(nextId, segment);
+        activeSegment = segment;
+        return segment;
+    }
+
+    /**
+     * Opens the existing segments in id order and rebuilds the index, later records replacing earlier ones.
+     */
+    private void openSegments() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .toList();
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(id, new Segment(id, file));
+        }
+
+        for (Segment segment : segments.values()) {
+            scanSegment(segment, segment == segments.lastEntry().getValue());
+        }
+
+        if (segments.isEmpty() || segments.lastEntry().getValue().size() >= segmentSize) {
+            rollSegment();
+        } else {
+            activeSegment = segments.lastEntry().getValue();
+        }
+        log.info("Opened key storage in {} with {} keys in {} segments", directory, index.size(), segments.size());
+    }
+
+    /**
+     * Indexes the records of a segment. Only the active segment may end with a torn record, which is truncated;
+     * any other damage means the file was corrupted after it was written and fails the startup.
+     */
+    private void scanSegment(Segment segment, boolean active) throws IOException {
+        long position = 0;
+        long size = segment.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        boolean tornTail = true;
+        // Bản ghi cũ không có thời điểm ghi, lấy thời điểm sửa segment làm giá trị gần nhất
+        long segmentTime = Files.getLastModifiedTime(segment.path).toMillis();
+
+        while (position < size) {
+            header.clear();
+            if (size - position < HEADER_LENGTH + CRC_LENGTH || segment.readFully(header, position) < HEADER_LENGTH) {
+                break;
+            }
+            header.flip();
+            int magic = header.getInt();
+            int idLength = Short.toUnsignedInt(header.getShort());
+            int valueLength = header.getInt();
+            boolean timed = magic == RECORD_MAGIC_TIMED;
+            int timeLength = timed ? TIME_LENGTH : 0;
+            int recordLength = HEADER_LENGTH + timeLength + idLength + valueLength + CRC_LENGTH;
+            if ((magic != RECORD_MAGIC && !timed) || valueLength < 0) {
+                // Hệ thống tệp có thể để lại vùng toàn số 0 sau bản ghi cuối khi mất điện
+                tornTail = isZeroFilled(segment, position, size);
+                break;
+            }
+            if (recordLength > size - position) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(timeLength + idLength + valueLength + CRC_LENGTH);
+            segment.readFully(body, position + HEADER_LENGTH);
+            body.flip();
+            byte[] time = new byte[timeLength];
+            byte[] id = new byte[idLength];
+            byte[] encodedKey = new byte[valueLength];
+            body.get(time).get(id).get(encodedKey);
+            int expected = timed ? checksum(time, id, encodedKey) : checksum(id, encodedKey);
+            if (body.getInt() != expected) {
+                tornTail = position + recordLength == size;
+                break;
+            }
+
+            long writtenAt = timed ? ByteBuffer.wrap(time).getLong() : segmentTime;
+            updateIndex(new String(id, StandardCharsets.UTF_8), new Location(segment,
+                    position + HEADER_LENGTH + timeLength + idLength, valueLength, recordLength, writtenAt));
+            position += recordLength;
+        }
+
+        if (position < size) {
+            if (!active || !tornTail) {
+                throw new IOException("Corrupt record in key storage segment " + segment.path + " at " + position
+                        + " of " + size + " bytes");
+            }
+            // Bản ghi cuối bị ghi dở khi tiến trình dừng đột ngột
+            log.warn("Truncating key storage segment {} at {} of {} bytes", segment.path, position, size);
+            segment.truncate(position);
+        }
+    }
+
+    private static boolean isZeroFilled(Segment segment, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), size - position));
+            int read = segment.readFully(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) != 0) {
+                    return false;
+                }
+            }
+            if (read == 0) {
+                break;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private static int checksum(byte[]... parts) {
+        CRC32 crc = new CRC32();
+        for (byte[] part : parts) {
+            crc.update(part);
+        }
+        return (int) crc.getValue();
+    }
+
+    private static String segmentFileName(int id) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX);
+    }
+
+    private record Location(Segment segment, long valueOffset, int valueLength, int recordLength, long writtenAt) {
+    }
+
+    /**
+     * One segment file. Appends and forces are serialized by the append lock of the store, reads are positional
+     * and may run concurrently with appends.
+     */
+    private static final class Segment {
+
+        private final int id;
+
+        private final Path path;
+
+        private final AtomicLong liveBytes = new AtomicLong();
+
+        private volatile FileChannel channel;
+
+        // Đã đóng hẳn do compaction hoặc tắt ứng dụng, không mở lại
+        private volatile boolean retired;
+
+        private Segment(int id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = open();
+        }
+
+        private long size() throws IOException {
+            return channel().size();
+        }
+
+        private long append(ByteBuffer record) throws IOException {
+            FileChannel fileChannel = channel();
+            long offset = fileChannel.size();
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += fileChannel.write(record, position);
+            }
+            return offset;
+        }
+
+        private void force() throws IOException {
+            channel().force(false);
+        }
+
+        private byte[] read(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            if (readFully(buffer, position) < length) {
+                throw new EOFException("Unexpected end of key storage segment " + path);
+            }
+            return buffer.array();
+        }
+
+        private int readFully(ByteBuffer buffer, long position) throws IOException {
+            int total = 0;
+            while (buffer.hasRemaining()) {
+                int read = channel().read(buffer, position + total);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total;
+        }
+
+        private void truncate(long size) throws IOException {
+            channel().truncate(size);
+        }
+
+        private void close() {
+            retired = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void delete() throws IOException {
+            close();
+            Files.deleteIfExists(path);
+        }
+
+        /**
+         * Returns the open channel, reopening it when an interrupted reader closed it.
+         */
+        private FileChannel channel() throws IOException {
+            FileChannel current = channel;
+            if (current.isOpen()) {
+                return current;
+            }
+            synchronized (this) {
+                if (retired) {
+                    throw new ClosedChannelException();
+                }
+                if (!channel.isOpen()) {
+                    channel = open();
+                }
+                return channel;
+            }
+        }
+
+        private FileChannel open() throws IOException {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+}
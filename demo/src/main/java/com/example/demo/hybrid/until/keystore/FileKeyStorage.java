@@ -0,0 +1,73 @@
+package com.example.demo.hybrid.until.keystore;
+
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Legacy key storage: one Base64 encoded file per key, the key id being the file path.
+ * Select with {@code hybrid.key-storage.type=file}.
+ * <p>
+ * A key is written to a temporary file that is forced to disk, renamed over the key file and made durable by
+ * forcing the directory, so a crash leaves either the previous key or the new one.
+ */
+@Component
+@ConditionalOnProperty(name = "hybrid.key-storage.type", havingValue = "file")
+public class FileKeyStorage implements KeyStorage {
+
+    @Override
+    public boolean exists(String keyId) {
+        ValidationUtils.validateFilePath(keyId);
+        return Files.exists(Paths.get(keyId));
+    }
+
+    @Override
+    public byte[] read(String keyId) throws IOException {
+        ValidationUtils.validateFilePath(keyId);
+        byte[] content = Files.readAllBytes(Paths.get(keyId));
+        return Base64.getDecoder().decode(new String(content).trim());
+    }
+
+    @Override
+    public Instant lastModified(String keyId) throws IOException {
+        ValidationUtils.validateFilePath(keyId);
+        return Files.getLastModifiedTime(Paths.get(keyId)).toInstant();
+    }
+
+    @Override
+    public void write(String keyId, byte[] encodedKey) throws IOException {
+        ValidationUtils.validateFilePath(keyId);
+        ValidationUtils.validateObject(encodedKey);
+
+        Path path = Paths.get(keyId).toAbsolutePath();
+        Path directory = path.getParent();
+        FileSyncUtils.createDirectories(directory);
+
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer content = ByteBuffer.wrap(Base64.getEncoder().encode(encodedKey));
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(false);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        // Tên tệp mới chỉ bền vững sau khi fsync thư mục chứa nó
+        FileSyncUtils.forceDirectory(directory);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.hybrid.until.keystore;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Forces files and directory entries to disk for the key storage backends.
+ * <p>
+ * Forcing a file makes its content durable, but a new, renamed or deleted file is only durable once its parent
+ * directory is forced too. Windows cannot open a directory for sync and journals directory changes itself, so
+ * directory syncs are skipped there.
+ */
+final class FileSyncUtils {
+
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private FileSyncUtils() {
+    }
+
+    /**
+     * Forces a directory, making the files created, renamed or deleted in it durable.
+     *
+     * @param directory The directory.
+     * @throws IOException if the directory cannot be forced.
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Creates a directory and its missing parents, forcing the parent of each created directory.
+     *
+     * @param directory The directory to create.
+     * @throws IOException if a directory cannot be created or forced.
+     */
+    static void createDirectories(Path directory) throws IOException {
+        Deque<Path> missing = new ArrayDeque<>();
+        for (Path current = directory.toAbsolutePath(); current != null && !Files.isDirectory(current);
+             current = current.getParent()) {
+            missing.push(current);
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        // Thư mục cha của mỗi thư mục mới phải được fsync thì thư mục mới mới bền vững
+        for (Path created : missing) {
+            forceDirectory(created.getParent());
+        }
+    }
+}
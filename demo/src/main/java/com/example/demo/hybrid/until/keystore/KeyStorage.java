@@ -0,0 +1,66 @@
+package com.example.demo.hybrid.until.keystore;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Storage for the RSA keys of users, addressed by the key id saved on the user row.
+ * <p>
+ * Key ids are the paths produced by {@link com.example.demo.hybrid.until.encryptions.EncryptionUtil#generateKeyPath},
+ * so users registered with the per-file layout keep working with any backend.
+ */
+public interface KeyStorage {
+
+    /**
+     * Returns whether a key is stored under the given id.
+     *
+     * @param keyId The key id.
+     * @return {@code true} if the key exists.
+     */
+    boolean exists(String keyId);
+
+    /**
+     * Reads the encoded key (X.509 for public keys, PKCS#8 for private keys) stored under the given id.
+     *
+     * @param keyId The key id.
+     * @return The encoded key.
+     * @throws java.nio.file.NoSuchFileException if no key is stored under the id.
+     * @throws IOException                       if the key cannot be read.
+     */
+    byte[] read(String keyId) throws IOException;
+
+    /**
+     * Returns the time the key stored under the given id was written, as recorded by the storage.
+     *
+     * @param keyId The key id.
+     * @return The write time of the key.
+     * @throws java.nio.file.NoSuchFileException if no key is stored under the id.
+     * @throws IOException                       if the time cannot be read.
+     */
+    Instant lastModified(String keyId) throws IOException;
+
+    /**
+     * Stores an encoded key under the given id, replacing any previous key with the same id.
+     * The key is durable when this method returns.
+     *
+     * @param keyId      The key id.
+     * @param encodedKey The encoded key.
+     * @throws IOException if the key cannot be written.
+     */
+    void write(String keyId, byte[] encodedKey) throws IOException;
+
+    /**
+     * Stores several encoded keys, in the iteration order of the map, replacing any previous keys with the same ids.
+     * All keys are durable when this method returns. Backends that force writes to disk may do it once for the
+     * whole group instead of once per key.
+     *
+     * @param encodedKeys The encoded keys by key id.
+     * @throws IOException if a key cannot be written; keys before it may already be stored.
+     */
+    default void writeAll(Map<String, byte[]> encodedKeys) throws IOException {
+        for (Map.Entry<String, byte[]> entry : encodedKeys.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -1,44 +1,57 @@
 package com.example.demo.hybrid.until.log;
 
 import com.example.demo.hybrid.until.constant.LogConstant;
-import com.example.demo.hybrid.until.constant.RegexConstant;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 
 @Slf4j
 public class CustomLogger {
 
+    private static volatile MaskingPolicy maskingPolicy =
+            MaskingPolicy.of(LogConstant.DEFAULT_MASK_KEEP_FIRST, LogConstant.DEFAULT_MASK_KEEP_LAST,
+                    LogConstant.DEFAULT_MASK_CHAR, LogConstant.DEFAULT_MASK_KEEP_SEPARATORS);
+
+    /**
+     * Replaces the policy used to mask transaction fields.
+     *
+     * @param policy The new masking policy.
+     */
+    public static void setMaskingPolicy(MaskingPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Masking policy must not be null");
+        }
+        maskingPolicy = policy;
+    }
 
     /**
      * Logs a transaction with masked sensitive information.
+     * Does nothing, not even masking, when INFO is disabled for this logger.
      *
      * @param transactionId      The transaction ID.
      * @param sourceAccount      The source account number.
      * @param destinationAccount The destination account number.
      */
     public static void logTransaction(String transactionId, String sourceAccount, String destinationAccount ) {
-        String maskedTransactionId = maskSensitiveInfo(transactionId);
-        String maskedSourceAccount = maskSensitiveInfo(sourceAccount);
-        String maskedDestinationAccount = maskSensitiveInfo(destinationAccount);
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+
+        MaskingPolicy policy = maskingPolicy;
+        String maskedTransactionId = Masker.mask(transactionId, policy);
+        String maskedSourceAccount = Masker.mask(sourceAccount, policy);
+        String maskedDestinationAccount = Masker.mask(destinationAccount, policy);
 
         MDC.put(LogConstant.LOG_TRANSACTION_ID, maskedTransactionId);
         MDC.put(LogConstant.LOG_ACCOUNT, maskedSourceAccount);
         MDC.put(LogConstant.LOG_DESTINATION_ACCOUNT, maskedDestinationAccount);
-
-        log.info("Saving transaction: TransactionID={}, SourceAccount={}, DestinationAccount={}",
-                maskedTransactionId, maskedSourceAccount, maskedDestinationAccount);
-
-        MDC.clear();
-    }
-
-
-    /**
-     * Masks sensitive information by replacing with '?'.
-     *
-     * @param sensitiveData The sensitive data to mask.
-     * @return The masked sensitive data.
-     */
-    private static String maskSensitiveInfo(String sensitiveData) {
-        return sensitiveData.replaceAll(RegexConstant.REGEX_DOT, RegexConstant.MASK_CHAR);
+        try {
+            log.info("Saving transaction: TransactionID={}, SourceAccount={}, DestinationAccount={}",
+                    maskedTransactionId, maskedSourceAccount, maskedDestinationAccount);
+        } finally {
+            // Chỉ xóa các khóa đã thêm, giữ nguyên MDC của request
+            MDC.remove(LogConstant.LOG_TRANSACTION_ID);
+            MDC.remove(LogConstant.LOG_ACCOUNT);
+            MDC.remove(LogConstant.LOG_DESTINATION_ACCOUNT);
+        }
     }
 }
@@ -0,0 +1,61 @@
+package com.example.demo.hybrid.until.log;
+
+/**
+ * Masks sensitive values for logging with a {@link MaskingPolicy}.
+ * <p>
+ * Characters are copied into a reusable per-thread buffer and translated through the policy's lookup table,
+ * so the only allocation is the resulting string. No regular expressions are involved.
+ */
+public final class Masker {
+
+    private static final int INITIAL_BUFFER_SIZE = 64;
+
+    // Không giữ lại buffer lớn hơn kích thước này cho mỗi luồng
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[INITIAL_BUFFER_SIZE]);
+
+    private Masker() {
+    }
+
+    /**
+     * Masks a value according to the policy. A value no longer than the kept characters is masked completely,
+     * otherwise short values would be logged in clear.
+     *
+     * @param value  The value to mask, may be null.
+     * @param policy The masking policy.
+     * @return The masked value, or null if the value is null.
+     */
+    public static String mask(CharSequence value, MaskingPolicy policy) {
+        if (value == null) {
+            return null;
+        }
+        int length = value.length();
+        char[] buffer = buffer(length);
+
+        int maskedFrom = 0;
+        int maskedTo = length;
+        if (length > policy.keepFirst() + policy.keepLast()) {
+            maskedFrom = policy.keepFirst();
+            maskedTo = length - policy.keepLast();
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            buffer[i] = i >= maskedFrom && i < maskedTo ? policy.replacement(c) : c;
+        }
+        return new String(buffer, 0, length);
+    }
+
+    private static char[] buffer(int length) {
+        char[] buffer = BUFFER.get();
+        if (buffer.length >= length) {
+            return buffer;
+        }
+        if (length > MAX_RETAINED_BUFFER_SIZE) {
+            return new char[length];
+        }
+        char[] grown = new char[Math.max(length, buffer.length * 2)];
+        BUFFER.set(grown);
+        return grown;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.hybrid.until.log;
+
+/**
+ * How sensitive values are masked in logs: how many leading and trailing characters stay readable,
+ * which character replaces the others, and whether separators such as '-', ' ' or '.' are kept.
+ * <p>
+ * The decision for every ASCII character is precomputed into a lookup table when the policy is created,
+ * so {@link Masker} needs one array read per character. Non-ASCII characters are always masked.
+ */
+public final class MaskingPolicy {
+
+    private static final int ASCII_SIZE = 128;
+
+    private static final String SEPARATORS = " -./_:@";
+
+    private final int keepFirst;
+
+    private final int keepLast;
+
+    private final char maskChar;
+
+    private final char[] table = new char[ASCII_SIZE];
+
+    private MaskingPolicy(int keepFirst, int keepLast, char maskChar, boolean keepSeparators) {
+        if (keepFirst < 0 || keepLast < 0) {
+            throw new IllegalArgumentException("Number of kept characters must not be negative");
+        }
+        this.keepFirst = keepFirst;
+        this.keepLast = keepLast;
+        this.maskChar = maskChar;
+        for (char c = 0; c < ASCII_SIZE; c++) {
+            table[c] = keepSeparators && SEPARATORS.indexOf(c) >= 0 ? c : maskChar;
+        }
+    }
+
+    /**
+     * Masks every character except the last ones, e.g. {@code ????????1234}.
+     *
+     * @param keepLast The number of trailing characters to keep.
+     * @param maskChar The replacement character.
+     * @return The policy.
+     */
+    public static MaskingPolicy keepLast(int keepLast, char maskChar) {
+        return new MaskingPolicy(0, keepLast, maskChar, true);
+    }
+
+    /**
+     * Creates a policy.
+     *
+     * @param keepFirst      The number of leading characters to keep.
+     * @param keepLast       The number of trailing characters to keep.
+     * @param maskChar       The replacement character.
+     * @param keepSeparators Whether separator characters stay readable in the masked part.
+     * @return The policy.
+     */
+    public static MaskingPolicy of(int keepFirst, int keepLast, char maskChar, boolean keepSeparators) {
+        return new MaskingPolicy(keepFirst, keepLast, maskChar, keepSeparators);
+    }
+
+    int keepFirst() {
+        return keepFirst;
+    }
+
+    int keepLast() {
+        return keepLast;
+    }
+
+    /**
+     * Returns the character written in place of the given masked character.
+     */
+    char replacement(char c) {
+        return c < ASCII_SIZE ? table[c] : maskChar;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.hybrid.until.mapper;
+
+import com.example.demo.hybrid.dto.UserDTO;
+import com.example.demo.hybrid.entity.UsersEntity;
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+
+import java.util.Base64;
+
+
+public class UserMapper {
+
+    public static UserDTO convertToDTO(UsersEntity entity) {
+
+        ValidationUtils.validateObject(entity);
+
+        // Người dùng vừa lưu được trả về với bản mã dạng Base64
+        return convertToDTO(entity, encode(entity.getPassword()), encode(entity.getEmail()));
+    }
+
+    public static UserDTO convertToDTO(UsersEntity entity, String password, String email) {
+
+        ValidationUtils.validateObject(entity);
+
+        // Cột nhị phân chỉ được mã hóa Base64 tại đây, khi dữ liệu rời khỏi service qua JSON
+        return UserDTO.builder()
+                .accountId(entity.getAccountId())
+                .userName(entity.getUserName())
+                .password(password)
+                .email(email)
+                .encryptedAESKey(encode(entity.getEncryptedAESKey()))
+                .publicKeyPath(entity.getPublicKeyPath())
+                .privateKeyPath(entity.getPrivateKeyPath())
+                .build();
+    }
+
+    private static String encode(byte[] value) {
+        return value == null ? null : Base64.getEncoder().encodeToString(value);
+    }
+}
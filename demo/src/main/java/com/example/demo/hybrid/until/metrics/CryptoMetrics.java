@@ -0,0 +1,112 @@
+package com.example.demo.hybrid.until.metrics;
+
+import com.example.demo.hybrid.until.constant.MetricsConstant;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and payload size histograms for one crypto operation and algorithm.
+ * <p>
+ * All meters are created once on the global registry, which Spring Boot attaches its registries to, so the
+ * static crypto utilities can record without a bean lookup. Recording is a {@link System#nanoTime()} pair and
+ * a timer update, with no allocation on the hot path. Histograms are bounded to the expected range of each
+ * meter, so every series publishes a few dozen buckets.
+ */
+public final class CryptoMetrics {
+
+    public static final CryptoMetrics AES_ENCRYPT =
+            new CryptoMetrics(MetricsConstant.OPERATION_ENCRYPT, MetricsConstant.ALGORITHM_AES_GCM);
+
+    public static final CryptoMetrics AES_DECRYPT =
+            new CryptoMetrics(MetricsConstant.OPERATION_DECRYPT, MetricsConstant.ALGORITHM_AES_GCM);
+
+    public static final CryptoMetrics AES_LEGACY_DECRYPT =
+            new CryptoMetrics(MetricsConstant.OPERATION_DECRYPT, MetricsConstant.ALGORITHM_AES_ECB);
+
+    public static final CryptoMetrics RSA_ENCRYPT =
+            new CryptoMetrics(MetricsConstant.OPERATION_ENCRYPT, MetricsConstant.ALGORITHM_RSA);
+
+    public static final CryptoMetrics RSA_DECRYPT =
+            new CryptoMetrics(MetricsConstant.OPERATION_DECRYPT, MetricsConstant.ALGORITHM_RSA);
+
+    public static final CryptoMetrics RSA_WRAP =
+            new CryptoMetrics(MetricsConstant.OPERATION_WRAP, MetricsConstant.ALGORITHM_RSA);
+
+    public static final CryptoMetrics RSA_UNWRAP =
+            new CryptoMetrics(MetricsConstant.OPERATION_UNWRAP, MetricsConstant.ALGORITHM_RSA);
+
+    public static final CryptoMetrics RSA_KEYGEN =
+            new CryptoMetrics(MetricsConstant.OPERATION_KEYGEN, MetricsConstant.ALGORITHM_RSA);
+
+    public static final CryptoMetrics AES_KEYGEN =
+            new CryptoMetrics(MetricsConstant.OPERATION_KEYGEN, MetricsConstant.ALGORITHM_AES);
+
+    public static final CryptoMetrics RSA_KEY_LOAD =
+            new CryptoMetrics(MetricsConstant.OPERATION_KEY_LOAD, MetricsConstant.ALGORITHM_RSA);
+
+    public static final CryptoMetrics RSA_KEY_PARSE =
+            new CryptoMetrics(MetricsConstant.OPERATION_KEY_PARSE, MetricsConstant.ALGORITHM_RSA);
+
+    private final Timer success;
+
+    private final Timer failure;
+
+    private final DistributionSummary payloadSize;
+
+    private CryptoMetrics(String operation, String algorithm) {
+        this.success = timer(operation, algorithm, MetricsConstant.OUTCOME_SUCCESS);
+        this.failure = timer(operation, algorithm, MetricsConstant.OUTCOME_FAILURE);
+        this.payloadSize = DistributionSummary.builder(MetricsConstant.CRYPTO_PAYLOAD_SIZE)
+                .description("Size of the data passed to crypto operations")
+                .baseUnit(MetricsConstant.BASE_UNIT_BYTES)
+                .tag(MetricsConstant.TAG_OPERATION, operation)
+                .tag(MetricsConstant.TAG_ALGORITHM, algorithm)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MetricsConstant.CRYPTO_PAYLOAD_SIZE_MIN)
+                .maximumExpectedValue(MetricsConstant.CRYPTO_PAYLOAD_SIZE_MAX)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return The start timestamp to pass to {@link #stop(long, boolean)}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the duration of an operation started with {@link #start()}.
+     *
+     * @param startNanos The value returned by {@link #start()}.
+     * @param succeeded  Whether the operation completed without an exception.
+     */
+    public void stop(long startNanos, boolean succeeded) {
+        (succeeded ? success : failure).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the size of the data processed by an operation.
+     *
+     * @param bytes The payload size in bytes.
+     */
+    public void payload(int bytes) {
+        payloadSize.record(bytes);
+    }
+
+    private static Timer timer(String operation, String algorithm, String outcome) {
+        return Timer.builder(MetricsConstant.CRYPTO_DURATION)
+                .description("Duration of crypto and key operations")
+                .tag(MetricsConstant.TAG_OPERATION, operation)
+                .tag(MetricsConstant.TAG_ALGORITHM, algorithm)
+                .tag(MetricsConstant.TAG_OUTCOME, outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MetricsConstant.CRYPTO_DURATION_MIN)
+                .maximumExpectedValue(MetricsConstant.CRYPTO_DURATION_MAX)
+                .register(Metrics.globalRegistry);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.hybrid.until.metrics;
+
+import com.example.demo.hybrid.until.configs.UserEntityCacheConfig;
+import com.example.demo.hybrid.until.constant.MetricsConstant;
+import com.example.demo.hybrid.until.encryptions.AesEnvelope;
+import com.example.demo.hybrid.until.encryptions.CipherUtils;
+import com.example.demo.hybrid.until.encryptions.DataKeyCache;
+import com.example.demo.hybrid.until.encryptions.KeyContentCache;
+import com.example.demo.hybrid.until.encryptions.KeyPairPool;
+import com.example.demo.hybrid.until.encryptions.PublicKeyCache;
+import com.example.demo.hybrid.until.encryptions.UserKeyCache;
+import com.example.demo.logging.DroppingAsyncAppender;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the counters kept by the cipher pool, the key caches, the key pair pool and the log appenders as meters.
+ * Values are read when the registry is scraped, so the hot paths keep their plain counters.
+ */
+@Component
+public class CryptoMetricsBinder implements MeterBinder {
+
+    @Autowired
+    private KeyPairPool keyPairPool;
+
+    // Chỉ có khi bật hybrid.user-cache.enabled
+    @Autowired(required = false)
+    private UserEntityCacheConfig userEntityCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(MetricsConstant.CIPHER_POOL_REQUESTS, CipherUtils.class, c -> CipherUtils.getPoolHits())
+                .tag(MetricsConstant.TAG_RESULT, MetricsConstant.RESULT_HIT)
+                .register(registry);
+        FunctionCounter.builder(MetricsConstant.CIPHER_POOL_REQUESTS, CipherUtils.class, c -> CipherUtils.getPoolMisses())
+                .tag(MetricsConstant.TAG_RESULT, MetricsConstant.RESULT_MISS)
+                .register(registry);
+        FunctionCounter.builder(MetricsConstant.AES_LEGACY_DECRYPTIONS, AesEnvelope.class,
+                        c -> AesEnvelope.getLegacyDecryptions())
+                .description("AES payloads decrypted with the legacy ECB format")
+                .register(registry);
+
+        bindCache(registry, "public-key", PublicKeyCache::stats);
+        bindCache(registry, "user-public-key", UserKeyCache::publicKeyStats);
+        bindCache(registry, "user-private-key", UserKeyCache::privateKeyStats);
+        bindCache(registry, "data-key", DataKeyCache::stats);
+        bindCache(registry, "key-content", KeyContentCache::stats);
+        Gauge.builder(MetricsConstant.CACHE_SIZE, PublicKeyCache.class, c -> PublicKeyCache.size())
+                .tag(MetricsConstant.TAG_CACHE, "public-key")
+                .register(registry);
+        Gauge.builder(MetricsConstant.CACHE_SIZE, DataKeyCache.class, c -> DataKeyCache.size())
+                .tag(MetricsConstant.TAG_CACHE, "data-key")
+                .register(registry);
+        if (Objects.nonNull(userEntityCache)) {
+            bindCache(registry, "users", userEntityCache::stats);
+            Gauge.builder(MetricsConstant.CACHE_SIZE, userEntityCache, UserEntityCacheConfig::size)
+                    .tag(MetricsConstant.TAG_CACHE, "users")
+                    .register(registry);
+        }
+
+        Gauge.builder(MetricsConstant.KEY_PAIR_POOL_DEPTH, keyPairPool, KeyPairPool::depth)
+                .register(registry);
+        FunctionCounter.builder(MetricsConstant.KEY_PAIR_POOL_REQUESTS, keyPairPool, KeyPairPool::hits)
+                .tag(MetricsConstant.TAG_RESULT, MetricsConstant.RESULT_HIT)
+                .register(registry);
+        FunctionCounter.builder(MetricsConstant.KEY_PAIR_POOL_REQUESTS, keyPairPool, KeyPairPool::misses)
+                .tag(MetricsConstant.TAG_RESULT, MetricsConstant.RESULT_MISS)
+                .register(registry);
+        FunctionCounter.builder(MetricsConstant.KEY_PAIR_POOL_GENERATED, keyPairPool, KeyPairPool::refilled)
+                .register(registry);
+        FunctionCounter.builder(MetricsConstant.KEY_PAIR_POOL_WAIT, keyPairPool,
+                        pool -> pool.totalWaitNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                .baseUnit(MetricsConstant.BASE_UNIT_SECONDS)
+                .description("Time callers spent generating key pairs inline because the pool was empty")
+                .register(registry);
+
+        FunctionCounter.builder(MetricsConstant.LOG_DROPPED, DroppingAsyncAppender.class,
+                        c -> DroppingAsyncAppender.getDroppedEvents())
+                .description("Log events dropped because the asynchronous appender queue was full")
+                .register(registry);
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, Supplier<CacheStats> stats) {
+        FunctionCounter.builder(MetricsConstant.CACHE_GETS, stats, s -> s.get().hitCount())
+                .tag(MetricsConstant.TAG_CACHE, name)
+                .tag(MetricsConstant.TAG_RESULT, MetricsConstant.RESULT_HIT)
+                .register(registry);
+        FunctionCounter.builder(MetricsConstant.CACHE_GETS, stats, s -> s.get().missCount())
+                .tag(MetricsConstant.TAG_CACHE, name)
+                .tag(MetricsConstant.TAG_RESULT, MetricsConstant.RESULT_MISS)
+                .register(registry);
+        FunctionCounter.builder(MetricsConstant.CACHE_EVICTIONS, stats, s -> s.get().evictionCount())
+                .tag(MetricsConstant.TAG_CACHE, name)
+                .register(registry);
+    }
+}
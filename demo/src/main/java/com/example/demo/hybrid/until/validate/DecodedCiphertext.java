@@ -0,0 +1,10 @@
+package com.example.demo.hybrid.until.validate;
+
+/**
+ * Ciphertext that has been validated and decoded from Base64 once, so the crypto APIs can use the bytes
+ * without decoding the string again. Obtain instances from {@link ValidationUtils#decodeCiphertext(String)}.
+ *
+ * @param bytes The decoded ciphertext, never empty. Not copied, callers must not modify it.
+ */
+public record DecodedCiphertext(byte[] bytes) {
+}
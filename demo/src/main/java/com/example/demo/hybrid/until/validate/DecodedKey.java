@@ -0,0 +1,10 @@
+package com.example.demo.hybrid.until.validate;
+
+/**
+ * An encoded key (X.509 or PKCS#8) that has been validated and decoded from Base64 once.
+ * Obtain instances from {@link ValidationUtils#decodeKey(String)}.
+ *
+ * @param bytes The decoded key, never empty. Not copied, callers must not modify it.
+ */
+public record DecodedKey(byte[] bytes) {
+}
@@ -1,5 +1,6 @@
 package com.example.demo.hybrid.until.validate;
 
+import com.example.demo.hybrid.exception.InvalidInputException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +13,11 @@ import java.security.Key;
 
 /**
  * A utility class for validating various inputs.
+ * <p>
+ * Request fields and Base64 input sent by clients are expected to be invalid at times, so those failures are logged
+ * at debug level and thrown as {@link InvalidInputException}, which has no stack trace. The other checks guard
+ * values produced by the server itself, such as keys and key paths, and throw a plain
+ * {@link IllegalArgumentException} logged at error level, so a server bug keeps its stack trace.
  */
 public class ValidationUtils {
 
@@ -25,8 +31,8 @@ public class ValidationUtils {
      */
     public static void validateString(String str) {
         if (Objects.isNull(str) || str.trim().isEmpty()) {
-            logger.error("String validation failed: String cannot be null or empty");
-            throw new IllegalArgumentException("String cannot be null or empty");
+            logger.debug("String validation failed: String cannot be null or empty");
+            throw new InvalidInputException("String cannot be null or empty");
         }
     }
 
@@ -43,6 +49,23 @@ public class ValidationUtils {
         }
     }
 
+    /**
+     * Validates that an encrypted value fits in its binary column. The ciphertext grows with the client's input,
+     * so a value that is too long is rejected here with a clear message instead of failing the insert.
+     *
+     * @param field     The name of the field, used in the message.
+     * @param value     The encrypted value.
+     * @param maxLength The size of the column in bytes.
+     * @throws IllegalArgumentException if the value is longer than the column.
+     */
+    public static void validateLength(String field, byte[] value, int maxLength) {
+        if (value.length > maxLength) {
+            logger.debug("Length validation failed: {} has {} bytes, column holds {}", field, value.length, maxLength);
+            throw new InvalidInputException(field + " is too long: " + value.length
+                    + " bytes after encryption, at most " + maxLength + " allowed");
+        }
+    }
+
     /**
      * Validates that an AES key is not null.
      *
@@ -84,20 +107,47 @@ public class ValidationUtils {
 
     /**
      * Validates that a Base64 string is not null or empty and is a valid Base64 encoded string.
+     * Prefer {@link #decodeCiphertext(String)} or {@link #decodeKey(String)} when the bytes are needed afterwards.
      *
      * @param base64String The Base64 string to be validated.
      * @throws IllegalArgumentException if the Base64 string is null, empty, or invalid.
      */
     public static void validateBase64String(String base64String) {
+        decodeBase64(base64String);
+    }
+
+    /**
+     * Validates and decodes Base64 encoded ciphertext.
+     *
+     * @param base64String The Base64 encoded ciphertext.
+     * @return The decoded ciphertext.
+     * @throws IllegalArgumentException if the string is null, empty, or not valid Base64.
+     */
+    public static DecodedCiphertext decodeCiphertext(String base64String) {
+        return new DecodedCiphertext(decodeBase64(base64String));
+    }
+
+    /**
+     * Validates and decodes a Base64 encoded key.
+     *
+     * @param base64String The Base64 encoded key.
+     * @return The decoded key.
+     * @throws IllegalArgumentException if the string is null, empty, or not valid Base64.
+     */
+    public static DecodedKey decodeKey(String base64String) {
+        return new DecodedKey(decodeBase64(base64String));
+    }
+
+    private static byte[] decodeBase64(String base64String) {
         if (Objects.isNull(base64String) || base64String.trim().isEmpty()) {
-            logger.error("Base64 string validation failed: Base64 string cannot be null or empty");
-            throw new IllegalArgumentException("Base64 string cannot be null or empty");
+            logger.debug("Base64 string validation failed: Base64 string cannot be null or empty");
+            throw new InvalidInputException("Base64 string cannot be null or empty");
         }
         try {
-            Base64.getDecoder().decode(base64String);
+            return Base64.getDecoder().decode(base64String);
         } catch (IllegalArgumentException e) {
-            logger.error("Invalid Base64 string validation failed", e);
-            throw new IllegalArgumentException("Invalid Base64 encoded string", e);
+            logger.debug("Invalid Base64 string validation failed: {}", e.getMessage());
+            throw new InvalidInputException("Invalid Base64 encoded string");
         }
     }
 
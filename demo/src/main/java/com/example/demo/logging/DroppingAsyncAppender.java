@@ -0,0 +1,190 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous appender that never blocks the logging thread: when its bounded queue is full the event is
+ * dropped and counted instead. Formatting and redaction run on the appender's worker thread.
+ * <p>
+ * Logback's {@code AsyncAppender} ignores the result of its non-blocking offer, so drops could only be guessed
+ * from the remaining capacity, which races with other logging threads. This appender owns its queue and counts
+ * exactly the offers that fail. Events of every level are kept while the queue has room.
+ * The drop count is exposed as the {@code hybrid.log.dropped} metric.
+ */
+public class DroppingAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public static final int DEFAULT_QUEUE_SIZE = 256;
+
+    public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+
+    // Luồng ghi kiểm tra trạng thái dừng sau mỗi khoảng này khi hàng đợi trống
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final LongAdder DROPPED_EVENTS = new LongAdder();
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    private int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+
+    private boolean includeCallerData;
+
+    private BlockingQueue<ILoggingEvent> queue;
+
+    private Thread worker;
+
+    /**
+     * Returns the number of events dropped by all instances because their queue was full.
+     *
+     * @return The drop count.
+     */
+    public static long getDroppedEvents() {
+        return DROPPED_EVENTS.sum();
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No attached appenders found for [" + getName() + "]");
+            return;
+        }
+        if (queueSize < 1) {
+            addError("Invalid queue size [" + queueSize + "]");
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueSize);
+        worker = new Thread(this::drainLoop, "AsyncAppender-Worker-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        // Luồng ghi tự thoát khi thấy appender đã dừng và ghi nốt các sự kiện còn trong hàng đợi
+        super.stop();
+        try {
+            worker.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Max flush time of " + maxFlushTime + " ms exceeded, " + queue.size()
+                    + " queued events may be lost");
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Chụp MDC, tham số và tên luồng trước khi sự kiện rời luồng gọi
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        // Hàng đợi đầy: bỏ sự kiện thay vì chặn luồng nghiệp vụ
+        if (!queue.offer(event)) {
+            DROPPED_EVENTS.increment();
+        }
+    }
+
+    private void drainLoop() {
+        while (isStarted()) {
+            try {
+                ILoggingEvent event = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    appenders.appendLoopOnAppenders(event);
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                addError("Error writing log event", e);
+            }
+        }
+
+        List<ILoggingEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (ILoggingEvent event : remaining) {
+            appenders.appendLoopOnAppenders(event);
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.demo.logging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Single-pass redaction of sensitive data in formatted log lines.
+ * <p>
+ * Two rules are applied while the line is copied once:
+ * <ul>
+ *     <li>Keywords such as {@code password} or {@code account}, matched case-insensitively by an Aho-Corasick
+ *     automaton compiled to a dense transition table. When a keyword is followed by {@code =} or {@code :},
+ *     the value after it is masked up to the next delimiter.</li>
+ *     <li>Runs of at least {@code minDigitRun} digits, such as account numbers, are masked except for their
+ *     last {@code keepLast} digits.</li>
+ * </ul>
+ * Each input character costs one table lookup whatever the number of keywords, so redaction time depends only
+ * on the length of the line. Instances are immutable and thread-safe.
+ */
+public final class RedactionEngine {
+
+    private static final int ALPHABET = 128;
+
+    private final int[] transitions;
+
+    private final boolean[] terminal;
+
+    private final int minDigitRun;
+
+    private final int keepLast;
+
+    private final char maskChar;
+
+    /**
+     * Compiles the keywords into the automaton.
+     *
+     * @param keywords    The keywords whose values are masked, ASCII only, matched case-insensitively.
+     * @param minDigitRun The shortest digit run to mask, 0 to disable digit masking.
+     * @param keepLast    The number of trailing digits left readable in a masked run.
+     * @param maskChar    The replacement character.
+     */
+    public RedactionEngine(Collection<String> keywords, int minDigitRun, int keepLast, char maskChar) {
+        if (minDigitRun < 0 || keepLast < 0) {
+            throw new IllegalArgumentException("Digit run settings must not be negative");
+        }
+        this.minDigitRun = minDigitRun;
+        this.keepLast = keepLast;
+        this.maskChar = maskChar;
+
+        // Xây dựng trie từ các từ khóa (chữ thường)
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        trie.add(newNode());
+        ends.add(false);
+        for (String keyword : keywords) {
+            if (keyword.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int c = lower(keyword.charAt(i));
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newNode());
+                    ends.add(false);
+                }
+                state = trie.get(state)[c];
+            }
+            ends.set(state, true);
+        }
+
+        int states = trie.size();
+        this.transitions = new int[states * ALPHABET];
+        this.terminal = new boolean[states];
+        int[] fail = new int[states];
+        for (int s = 0; s < states; s++) {
+            terminal[s] = ends.get(s);
+        }
+
+        // Duyệt theo chiều rộng để tính liên kết thất bại và điền bảng chuyển trạng thái đầy đủ
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = trie.get(0)[c];
+            transitions[c] = Math.max(child, 0);
+            if (child > 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            terminal[state] |= terminal[fail[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = trie.get(state)[c];
+                if (child > 0) {
+                    fail[child] = transitions[fail[state] * ALPHABET + c];
+                    transitions[state * ALPHABET + c] = child;
+                    queue.add(child);
+                } else {
+                    transitions[state * ALPHABET + c] = transitions[fail[state] * ALPHABET + c];
+                }
+            }
+        }
+
+        // Chữ hoa dùng chung chuyển trạng thái với chữ thường
+        for (int s = 0; s < states; s++) {
+            for (int c = 'A'; c <= 'Z'; c++) {
+                transitions[s * ALPHABET + c] = transitions[s * ALPHABET + lower((char) c)];
+            }
+        }
+    }
+
+    /**
+     * Appends the redacted form of a line to the output.
+     *
+     * @param line The formatted log line.
+     * @param out  The builder to append to.
+     */
+    public void redact(CharSequence line, StringBuilder out) {
+        int length = line.length();
+        int state = 0;
+        int digitRunStart = -1;
+
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digitRunStart < 0) {
+                    digitRunStart = out.length();
+                }
+            } else if (digitRunStart >= 0) {
+                maskDigitRun(out, digitRunStart);
+                digitRunStart = -1;
+            }
+            out.append(c);
+
+            state = c < ALPHABET ? transitions[state * ALPHABET + c] : 0;
+            if (terminal[state]) {
+                if (digitRunStart >= 0) {
+                    maskDigitRun(out, digitRunStart);
+                    digitRunStart = -1;
+                }
+                i = maskValue(line, i + 1, out);
+                state = 0;
+            }
+        }
+        if (digitRunStart >= 0) {
+            maskDigitRun(out, digitRunStart);
+        }
+    }
+
+    /**
+     * Redacts a line.
+     *
+     * @param line The formatted log line.
+     * @return The redacted line.
+     */
+    public String redact(CharSequence line) {
+        StringBuilder out = new StringBuilder(line.length());
+        redact(line, out);
+        return out.toString();
+    }
+
+    /**
+     * Copies the separator after a keyword and masks the value that follows it.
+     *
+     * @return The index of the last character consumed, or {@code from - 1} if no value follows.
+     */
+    private int maskValue(CharSequence line, int from, StringBuilder out) {
+        int length = line.length();
+        int i = from;
+        while (i < length && isQuoteOrSpace(line.charAt(i))) {
+            i++;
+        }
+        if (i >= length || (line.charAt(i) != '=' && line.charAt(i) != ':')) {
+            return from - 1;
+        }
+        i++;
+        while (i < length && isQuoteOrSpace(line.charAt(i))) {
+            i++;
+        }
+        out.append(line, from, i);
+
+        while (i < length && !isDelimiter(line.charAt(i))) {
+            out.append(maskChar);
+            i++;
+        }
+        return i - 1;
+    }
+
+    private void maskDigitRun(StringBuilder out, int start) {
+        int end = out.length();
+        if (minDigitRun == 0 || end - start < minDigitRun) {
+            return;
+        }
+        for (int i = start; i < end - keepLast; i++) {
+            out.setCharAt(i, maskChar);
+        }
+    }
+
+    private static boolean isQuoteOrSpace(char c) {
+        return c == ' ' || c == '"' || c == '\'';
+    }
+
+    private static boolean isDelimiter(char c) {
+        return Character.isWhitespace(c) || c == ',' || c == ';' || c == '&' || c == '"' || c == '\''
+                || c == ')' || c == ']' || c == '}';
+    }
+
+    private static int lower(char c) {
+        if (c >= ALPHABET) {
+            throw new IllegalArgumentException("Redaction keywords must be ASCII");
+        }
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[ALPHABET];
+        Arrays.fill(node, -1);
+        return node;
+    }
+}
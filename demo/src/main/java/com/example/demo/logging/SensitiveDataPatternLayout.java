@@ -0,0 +1,79 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Arrays;
+
+/**
+ * Pattern layout that redacts sensitive data from every formatted line, including exception messages
+ * and stack traces, with a {@link RedactionEngine}.
+ * <p>
+ * Configured in {@code logback-spring.xml}; besides {@code pattern} it accepts {@code keywords}
+ * (comma separated), {@code minDigitRun}, {@code keepLast} and {@code maskChar}.
+ */
+public class SensitiveDataPatternLayout extends PatternLayout {
+
+    private static final String DEFAULT_KEYWORDS = "password,email,account,encryptedAESKey,publicKeyContent";
+
+    private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;
+
+    private final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private String keywords = DEFAULT_KEYWORDS;
+
+    private int minDigitRun = 9;
+
+    private int keepLast = 4;
+
+    private char maskChar = '*';
+
+    private RedactionEngine engine;
+
+    public void setKeywords(String keywords) {
+        this.keywords = keywords;
+    }
+
+    public void setMinDigitRun(int minDigitRun) {
+        this.minDigitRun = minDigitRun;
+    }
+
+    public void setKeepLast(int keepLast) {
+        this.keepLast = keepLast;
+    }
+
+    public void setMaskChar(String maskChar) {
+        if (maskChar == null || maskChar.length() != 1) {
+            throw new IllegalArgumentException("Mask character must be a single character");
+        }
+        this.maskChar = maskChar.charAt(0);
+    }
+
+    @Override
+    public void start() {
+        engine = new RedactionEngine(Arrays.stream(keywords.split(","))
+                .map(String::trim)
+                .filter(keyword -> !keyword.isEmpty())
+                .toList(), minDigitRun, keepLast, maskChar);
+        super.start();
+    }
+
+    @Override
+    public String doLayout(ILoggingEvent event) {
+        String formatted = super.doLayout(event);
+        if (engine == null) {
+            return formatted;
+        }
+
+        StringBuilder out = buffer.get();
+        out.setLength(0);
+        engine.redact(formatted, out);
+        String redacted = out.toString();
+
+        // Không giữ buffer quá lớn sau một dòng log dài bất thường
+        if (out.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            buffer.remove();
+        }
+        return redacted;
+    }
+}
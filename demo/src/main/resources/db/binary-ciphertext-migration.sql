@@ -0,0 +1,34 @@
+-- Chuyen cac cot ban ma tu Base64 longtext sang varbinary.
+-- Chay mot lan truoc khi khoi dong phien ban dung cot nhi phan (MySQL 8).
+
+ALTER TABLE transaction_history
+    ADD COLUMN account_bin VARBINARY(512),
+    ADD COLUMN encryptedaeskey_bin VARBINARY(512);
+
+UPDATE transaction_history
+SET account_bin         = FROM_BASE64(account),
+    encryptedaeskey_bin = FROM_BASE64(encryptedaeskey);
+
+ALTER TABLE transaction_history
+    DROP COLUMN account,
+    DROP COLUMN encryptedaeskey,
+    RENAME COLUMN account_bin TO account,
+    RENAME COLUMN encryptedaeskey_bin TO encryptedaeskey;
+
+ALTER TABLE users
+    ADD COLUMN password_bin VARBINARY(512),
+    ADD COLUMN email_bin VARBINARY(512),
+    ADD COLUMN encryptedaeskey_bin VARBINARY(512);
+
+UPDATE users
+SET password_bin        = FROM_BASE64(password),
+    email_bin           = FROM_BASE64(email),
+    encryptedaeskey_bin = FROM_BASE64(encryptedaeskey);
+
+ALTER TABLE users
+    DROP COLUMN password,
+    DROP COLUMN email,
+    DROP COLUMN encryptedaeskey,
+    RENAME COLUMN password_bin TO password,
+    RENAME COLUMN email_bin TO email,
+    RENAME COLUMN encryptedaeskey_bin TO encryptedaeskey;
@@ -0,0 +1,7 @@
+-- Thay index account_bidx bang index (account_bidx, time, id) cho phan trang keyset lich su giao dich.
+-- ddl-auto=update tao index moi nhung khong xoa index cu, chay mot lan tren co so du lieu da co.
+
+CREATE INDEX idx_transaction_history_account_bidx_time_id
+    ON transaction_history (account_bidx, time, id);
+
+DROP INDEX idx_transaction_history_account_bidx ON transaction_history;
@@ -0,0 +1,171 @@
+package com.example;
+
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.entity.UserAccountEntity;
+import com.example.demo.hybrid.entity.UsersEntity;
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.repository.UserAccountRepository;
+import com.example.demo.hybrid.repository.UsersRepository;
+import com.example.demo.hybrid.service.iplm.AccountServiceImpl;
+import com.example.demo.hybrid.until.constant.EncryptionConstant;
+import com.example.demo.hybrid.until.encryptions.BlindIndexer;
+import com.example.demo.hybrid.until.encryptions.CryptoExecutor;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.encryptions.HashUtils;
+import com.example.demo.hybrid.until.encryptions.ServerKeyRing;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountServiceTest {
+
+    private static final KeyPair SERVER_KEYS = newKeyPair();
+
+    private static final KeyPair OWNER_KEYS = newKeyPair();
+
+    private static final KeyPair OTHER_KEYS = newKeyPair();
+
+    private final BlindIndexer blindIndexer = new BlindIndexer(Base64.getEncoder().encodeToString(new byte[32]));
+
+    private final Map<ByteBuffer, UsersEntity> users = new HashMap<>();
+
+    private final Map<String, UserAccountEntity> accounts = new HashMap<>();
+
+    private final AccountServiceImpl accountService = new AccountServiceImpl(usersRepository(),
+            userAccountRepository(), blindIndexer, new ServerKeyRing(SERVER_KEYS, null, new CryptoExecutor(false, 0)),
+            new CryptoExecutor(false, 0));
+
+    public AccountServiceTest() {
+        register(1L, OWNER_KEYS);
+        register(2L, OTHER_KEYS);
+    }
+
+    @Test
+    void testOwnerCanReadLinkedAccount() {
+        accountService.linkAccount(encryptForServer("AccountA"), publicKeyContent(OWNER_KEYS));
+
+        assertEquals(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, "AccountA"),
+                accountService.requireOwnedAccountIndex("AccountA", publicKeyContent(OWNER_KEYS)));
+        assertEquals(List.of(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, "AccountA")),
+                accountService.ownedAccountIndexes(users.values().stream()
+                        .filter(user -> user.getAccountId() == 1L)
+                        .findFirst()
+                        .orElseThrow()));
+    }
+
+    @Test
+    void testForeignKeyIsRejected() {
+        accountService.linkAccount(encryptForServer("AccountA"), publicKeyContent(OWNER_KEYS));
+        // Người gọi có tài khoản riêng vẫn không đọc được tài khoản của người khác
+        accountService.linkAccount(encryptForServer("AccountC"), publicKeyContent(OTHER_KEYS));
+
+        assertThrows(EncryptionException.class,
+                () -> accountService.requireOwnedAccountIndex("AccountA", publicKeyContent(OTHER_KEYS)));
+        // Tài khoản chưa được liên kết cũng không được đọc
+        assertThrows(EncryptionException.class,
+                () -> accountService.requireOwnedAccountIndex("AccountB", publicKeyContent(OWNER_KEYS)));
+    }
+
+    @Test
+    void testOnlyOwnedTransactionLegsAreReturned() {
+        accountService.linkAccount(encryptForServer("AccountA"), publicKeyContent(OWNER_KEYS));
+        accountService.linkAccount(encryptForServer("AccountB"), publicKeyContent(OTHER_KEYS));
+        List<TransactionHistoryEntity> legs = List.of(leg("AccountA"), leg("AccountB"));
+
+        List<TransactionHistoryEntity> visible = accountService.requireOwnedLegs(legs, publicKeyContent(OWNER_KEYS));
+        assertEquals(List.of(legs.get(0)), visible);
+        // Khóa của người không tham gia giao dịch bị từ chối
+        assertThrows(EncryptionException.class,
+                () -> accountService.requireOwnedLegs(List.of(leg("AccountA")), publicKeyContent(OTHER_KEYS)));
+    }
+
+    @Test
+    void testUnregisteredKeyIsRejected() {
+        assertThrows(EncryptionException.class,
+                () -> accountService.requireOwnedAccountIndex("AccountA", publicKeyContent(newKeyPair())));
+    }
+
+    @Test
+    void testAccountCannotBeLinkedTwice() {
+        accountService.linkAccount(encryptForServer("AccountA"), publicKeyContent(OWNER_KEYS));
+        accountService.linkAccount(encryptForServer("AccountA"), publicKeyContent(OWNER_KEYS));
+
+        assertThrows(EncryptionException.class,
+                () -> accountService.linkAccount(encryptForServer("AccountA"), publicKeyContent(OTHER_KEYS)));
+        assertEquals(1, accounts.size());
+        assertEquals(1L, (long) accounts.values().iterator().next().getUserId());
+    }
+
+    private void register(long id, KeyPair keys) {
+        byte[] fingerprint = HashUtils.sha256(keys.getPublic().getEncoded());
+        users.put(ByteBuffer.wrap(fingerprint), UsersEntity.builder()
+                .accountId(id)
+                .publicKeyFingerprint(fingerprint)
+                .build());
+    }
+
+    private TransactionHistoryEntity leg(String account) {
+        return TransactionHistoryEntity.builder()
+                .accountIndex(blindIndexer.index(EncryptionConstant.BLIND_INDEX_ACCOUNT, account))
+                .build();
+    }
+
+    private static String encryptForServer(String account) {
+        return EncryptionUtil.encryptDataWithRSA(account, SERVER_KEYS.getPublic());
+    }
+
+    private static String publicKeyContent(KeyPair keys) {
+        return Base64.getEncoder().encodeToString(keys.getPublic().getEncoded());
+    }
+
+    private UsersRepository usersRepository() {
+        return (UsersRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UsersRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findByPublicKeyFingerprint")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return Optional.ofNullable(users.get(ByteBuffer.wrap((byte[]) args[0])));
+                });
+    }
+
+    private UserAccountRepository userAccountRepository() {
+        return (UserAccountRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UserAccountRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            return Optional.ofNullable(accounts.get((String) args[0]));
+                        case "save":
+                            UserAccountEntity account = (UserAccountEntity) args[0];
+                            accounts.put(account.getAccountIndex(), account);
+                            return account;
+                        case "findAllByUserId":
+                            return accounts.values().stream()
+                                    .filter(owner -> owner.getUserId().equals(args[0]))
+                                    .collect(Collectors.toList());
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static KeyPair newKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.until.encryptions.AesEnvelope;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AesEnvelopeTest {
+
+    private static SecretKey newKey() throws Exception {
+        KeyGenerator keyGen = KeyGenerator.getInstance("AES");
+        keyGen.init(256);
+        return keyGen.generateKey();
+    }
+
+    @Test
+    void testEncryptWritesVersionedEnvelope() throws Exception {
+        SecretKey key = newKey();
+
+        byte[] envelope = EncryptionUtil.encryptDataWithAES("123456789", key);
+
+        assertTrue(AesEnvelope.hasHeader(envelope));
+        assertEquals(AesEnvelope.VERSION_1, envelope[1]);
+        assertEquals("123456789", new String(EncryptionUtil.decryptDataWithAES(envelope, key), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEncryptUsesFreshIv() throws Exception {
+        SecretKey key = newKey();
+
+        assertNotEquals(new String(EncryptionUtil.encryptDataWithAES("same", key), StandardCharsets.ISO_8859_1),
+                new String(EncryptionUtil.encryptDataWithAES("same", key), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void testDecryptLegacyEcbCiphertext() throws Exception {
+        SecretKey key = newKey();
+        Cipher ecb = Cipher.getInstance("AES");
+        ecb.init(Cipher.ENCRYPT_MODE, key);
+        byte[] legacy = ecb.doFinal("legacy-account".getBytes(StandardCharsets.UTF_8));
+
+        long before = AesEnvelope.getLegacyDecryptions();
+        byte[] decrypted = EncryptionUtil.decryptDataWithAES(legacy, key);
+
+        assertEquals("legacy-account", new String(decrypted, StandardCharsets.UTF_8));
+        assertTrue(AesEnvelope.getLegacyDecryptions() > before);
+    }
+
+    @Test
+    void testDecryptTamperedEnvelope() throws Exception {
+        SecretKey key = newKey();
+        byte[] envelope = EncryptionUtil.encryptDataWithAES("123456789", key);
+        envelope[envelope.length - 1] ^= 0x01;
+
+        assertThrows(EncryptionException.class, () -> EncryptionUtil.decryptDataWithAES(envelope, key));
+    }
+
+    @Test
+    void testDecryptWithWrongKey() throws Exception {
+        byte[] envelope = EncryptionUtil.encryptDataWithAES("123456789", newKey());
+
+        assertThrows(EncryptionException.class, () -> EncryptionUtil.decryptDataWithAES(envelope, newKey()));
+    }
+
+    @Test
+    void testDecryptUnknownVersionIsRejected() throws Exception {
+        SecretKey key = newKey();
+        byte[] envelope = EncryptionUtil.encryptDataWithAES("123456789", key);
+        envelope[1] = 0x02;
+
+        long before = AesEnvelope.getLegacyDecryptions();
+        assertFalse(AesEnvelope.hasHeader(envelope));
+        assertThrows(EncryptionException.class, () -> EncryptionUtil.decryptDataWithAES(envelope, key));
+        assertEquals(before, AesEnvelope.getLegacyDecryptions());
+    }
+
+    @Test
+    void testDecryptTamperedEnvelopeDoesNotFallBackToEcb() throws Exception {
+        SecretKey key = newKey();
+        // 17 byte dữ liệu cho envelope 48 byte, là bội số của khối AES nên có thể bị nhầm với bản mã ECB
+        byte[] envelope = EncryptionUtil.encryptDataWithAES("12345678901234567", key);
+        envelope[envelope.length - 1] ^= 0x01;
+
+        long before = AesEnvelope.getLegacyDecryptions();
+        assertEquals(0, envelope.length % 16);
+        assertThrows(EncryptionException.class,
+                () -> EncryptionUtil.decryptDataWithAES(envelope, key, AesEnvelope.VERSION_1));
+        assertEquals(before, AesEnvelope.getLegacyDecryptions());
+    }
+
+    @Test
+    void testDecryptLegacyCiphertextStartingWithMagicByte() throws Exception {
+        SecretKey key = newKey();
+        Cipher ecb = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        ecb.init(Cipher.ENCRYPT_MODE, key);
+        // Khoảng 1/256 bản mã ECB cũ bắt đầu bằng byte magic, 32 byte là đủ dài để giống một envelope
+        String account;
+        byte[] legacy;
+        int attempt = 0;
+        do {
+            account = attempt++ + "-legacy-account";
+            legacy = ecb.doFinal(account.getBytes(StandardCharsets.UTF_8));
+        } while (legacy[0] != AesEnvelope.MAGIC);
+
+        long before = AesEnvelope.getLegacyDecryptions();
+        AesEnvelope.Opened opened = AesEnvelope.openUnmarked(legacy, key);
+
+        assertTrue(opened.legacy());
+        assertEquals(account, new String(opened.plaintext(), StandardCharsets.UTF_8));
+        assertEquals(account, new String(EncryptionUtil.decryptDataWithAES(legacy, key), StandardCharsets.UTF_8));
+        assertTrue(AesEnvelope.getLegacyDecryptions() > before);
+    }
+
+    @Test
+    void testDecryptUnmarkedEnvelope() throws Exception {
+        SecretKey key = newKey();
+        byte[] envelope = EncryptionUtil.encryptDataWithAES("12345678901234567", key);
+
+        AesEnvelope.Opened opened = AesEnvelope.openUnmarked(envelope, key);
+
+        assertFalse(opened.legacy());
+        assertEquals("12345678901234567", new String(opened.plaintext(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,227 @@
+package com.example;
+
+import com.example.demo.hybrid.until.keystore.AppendOnlyKeyStorage;
+import com.example.demo.hybrid.until.keystore.FileKeyStorage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AppendOnlyKeyStorageTest {
+
+    private static AppendOnlyKeyStorage open(Path directory, long segmentSize) throws IOException {
+        return new AppendOnlyKeyStorage(directory, segmentSize, 0.5, 0, new FileKeyStorage());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testWriteAndReadBack() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        AppendOnlyKeyStorage storage = open(directory, 1024 * 1024);
+
+        storage.write("keys/a_publicKey.pem", bytes("public"));
+        storage.write("keys/a_privateKey.pem", bytes("private"));
+
+        assertTrue(storage.exists("keys/a_publicKey.pem"));
+        assertArrayEquals(bytes("public"), storage.read("keys/a_publicKey.pem"));
+        assertArrayEquals(bytes("private"), storage.read("keys/a_privateKey.pem"));
+        assertThrows(NoSuchFileException.class, () -> storage.read("keys/missing_publicKey.pem"));
+        storage.stop();
+    }
+
+    @Test
+    void testReopenRebuildsIndexWithLatestRecord() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        AppendOnlyKeyStorage storage = open(directory, 1024 * 1024);
+        storage.write("keys/a_publicKey.pem", bytes("old"));
+        storage.write("keys/a_publicKey.pem", bytes("new"));
+        storage.stop();
+
+        AppendOnlyKeyStorage reopened = open(directory, 1024 * 1024);
+
+        assertEquals(1, reopened.size());
+        assertArrayEquals(bytes("new"), reopened.read("keys/a_publicKey.pem"));
+        reopened.stop();
+    }
+
+    @Test
+    void testTornRecordIsTruncatedOnReopen() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        AppendOnlyKeyStorage storage = open(directory, 1024 * 1024);
+        storage.write("keys/a_publicKey.pem", bytes("complete"));
+        storage.stop();
+
+        // Giả lập bản ghi bị ghi dở khi tiến trình dừng
+        Path segment = directory.resolve("keystore-000001.seg");
+        long intactSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x4B, 0x53, 0x00, 0x01, 0x00, 0x10}));
+        }
+
+        AppendOnlyKeyStorage reopened = open(directory, 1024 * 1024);
+
+        assertEquals(intactSize, Files.size(segment));
+        assertArrayEquals(bytes("complete"), reopened.read("keys/a_publicKey.pem"));
+        reopened.write("keys/b_publicKey.pem", bytes("after"));
+        assertArrayEquals(bytes("after"), reopened.read("keys/b_publicKey.pem"));
+        reopened.stop();
+    }
+
+    @Test
+    void testCompactionKeepsLiveKeysAndDeletesSegments() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        AppendOnlyKeyStorage storage = open(directory, 256);
+        for (int i = 0; i < 20; i++) {
+            storage.write("keys/a_publicKey.pem", bytes("version-" + i));
+        }
+        storage.write("keys/b_publicKey.pem", bytes("stable"));
+        int segmentsBefore = storage.segmentCount();
+
+        assertTrue(storage.compact() > 0);
+
+        assertTrue(storage.segmentCount() < segmentsBefore);
+        assertArrayEquals(bytes("version-19"), storage.read("keys/a_publicKey.pem"));
+        assertArrayEquals(bytes("stable"), storage.read("keys/b_publicKey.pem"));
+        storage.stop();
+
+        AppendOnlyKeyStorage reopened = open(directory, 256);
+        assertArrayEquals(bytes("version-19"), reopened.read("keys/a_publicKey.pem"));
+        assertArrayEquals(bytes("stable"), reopened.read("keys/b_publicKey.pem"));
+        reopened.stop();
+    }
+
+    @Test
+    void testLegacyKeyFileIsImportedOnFirstRead() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        Path legacyFile = Files.createTempFile("legacy", "_publicKey.pem");
+        Files.write(legacyFile, Base64.getEncoder().encode(bytes("legacy")));
+        AppendOnlyKeyStorage storage = open(directory, 1024 * 1024);
+
+        assertTrue(storage.exists(legacyFile.toString()));
+        assertArrayEquals(bytes("legacy"), storage.read(legacyFile.toString()));
+        assertEquals(1, storage.size());
+
+        Files.delete(legacyFile);
+        assertArrayEquals(bytes("legacy"), storage.read(legacyFile.toString()));
+        storage.stop();
+    }
+
+    @Test
+    void testWriteTimeSurvivesCompactionAndReopen() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        AppendOnlyKeyStorage storage = open(directory, 256);
+        Instant before = Instant.now();
+        storage.write("keys/b_publicKey.pem", bytes("stable"));
+        Instant written = storage.lastModified("keys/b_publicKey.pem");
+        for (int i = 0; i < 20; i++) {
+            storage.write("keys/a_publicKey.pem", bytes("version-" + i));
+        }
+
+        assertFalse(written.isBefore(before.minusMillis(1)));
+        assertTrue(storage.compact() > 0);
+        // Bản ghi được compaction chép sang segment mới vẫn giữ thời điểm ghi ban đầu
+        assertEquals(written, storage.lastModified("keys/b_publicKey.pem"));
+        storage.stop();
+
+        AppendOnlyKeyStorage reopened = open(directory, 256);
+        assertEquals(written, reopened.lastModified("keys/b_publicKey.pem"));
+        assertThrows(NoSuchFileException.class, () -> reopened.lastModified("keys/missing_publicKey.pem"));
+        reopened.stop();
+    }
+
+    @Test
+    void testLegacyKeyKeepsFileTimeWhenImported() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        Path legacyFile = Files.createTempFile("legacy", "_publicKey.pem");
+        Files.write(legacyFile, Base64.getEncoder().encode(bytes("legacy")));
+        Instant fileTime = Instant.parse("2024-01-02T03:04:05Z");
+        Files.setLastModifiedTime(legacyFile, FileTime.from(fileTime));
+        AppendOnlyKeyStorage storage = open(directory, 1024 * 1024);
+
+        assertEquals(fileTime, storage.lastModified(legacyFile.toString()));
+        storage.read(legacyFile.toString());
+        assertEquals(fileTime, storage.lastModified(legacyFile.toString()));
+        storage.stop();
+    }
+
+    @Test
+    void testWriteAllStoresGroupAcrossSegments() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        AppendOnlyKeyStorage storage = open(directory, 128);
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            keys.put("keys/user" + i + "_publicKey.pem", bytes("key-" + i));
+        }
+
+        storage.writeAll(keys);
+
+        assertTrue(storage.segmentCount() > 1);
+        assertEquals(10, storage.size());
+        storage.stop();
+
+        AppendOnlyKeyStorage reopened = open(directory, 128);
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(bytes("key-" + i), reopened.read("keys/user" + i + "_publicKey.pem"));
+        }
+        reopened.stop();
+    }
+
+    @Test
+    void testCorruptSealedSegmentFailsOnReopen() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        AppendOnlyKeyStorage storage = open(directory, 64);
+        storage.write("keys/a_publicKey.pem", bytes("first"));
+        storage.write("keys/b_publicKey.pem", bytes("second"));
+        storage.write("keys/c_publicKey.pem", bytes("third"));
+        storage.stop();
+
+        // Hỏng một byte của khóa trong segment đã đóng
+        flipByte(directory.resolve("keystore-000001.seg"), 30);
+
+        assertThrows(IOException.class, () -> open(directory, 64));
+        assertTrue(Files.size(directory.resolve("keystore-000001.seg")) > 0);
+    }
+
+    @Test
+    void testCorruptRecordBeforeTailOfActiveSegmentFailsOnReopen() throws Exception {
+        Path directory = Files.createTempDirectory("keystore");
+        AppendOnlyKeyStorage storage = open(directory, 1024 * 1024);
+        storage.write("keys/a_publicKey.pem", bytes("first"));
+        storage.write("keys/b_publicKey.pem", bytes("second"));
+        storage.stop();
+
+        Path segment = directory.resolve("keystore-000001.seg");
+        long size = Files.size(segment);
+        // Bản ghi đầu tiên hỏng nhưng vẫn còn bản ghi hợp lệ phía sau, không phải ghi dở
+        flipByte(segment, 30);
+
+        assertThrows(IOException.class, () -> open(directory, 1024 * 1024));
+        assertEquals(size, Files.size(segment));
+    }
+
+    private static void flipByte(Path segment, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.put(0, (byte) (value.get(0) ^ 0xFF));
+            value.rewind();
+            channel.write(value, position);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example;
+
+import com.example.demo.hybrid.until.encryptions.BlindIndexer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlindIndexerTest {
+
+    private final BlindIndexer blindIndexer =
+            new BlindIndexer(Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+
+    @Test
+    void testIndexIsDeterministic() {
+        String first = blindIndexer.index("account", "123456789");
+        String second = blindIndexer.index("account", "123456789");
+
+        assertEquals(first, second);
+        assertEquals(64, first.length());
+    }
+
+    @Test
+    void testIndexDependsOnFieldAndValue() {
+        String account = blindIndexer.index("account", "123456789");
+
+        assertNotEquals(account, blindIndexer.index("transactionId", "123456789"));
+        assertNotEquals(account, blindIndexer.index("account", "123456780"));
+    }
+
+    @Test
+    void testIndexDependsOnKey() {
+        BlindIndexer other = new BlindIndexer(Base64.getEncoder().encodeToString("another-secret-key".getBytes()));
+
+        assertNotEquals(blindIndexer.index("account", "123456789"), other.index("account", "123456789"));
+    }
+
+    @Test
+    void testIndexWithEmptyValue() {
+        assertThrows(IllegalArgumentException.class, () -> blindIndexer.index("account", ""));
+    }
+
+    @Test
+    void testBlankSecretIsRejected() {
+        assertThrows(IllegalStateException.class, () -> new BlindIndexer(""));
+        assertThrows(IllegalStateException.class, () -> new BlindIndexer(null));
+    }
+}
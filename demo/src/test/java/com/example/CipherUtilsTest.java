@@ -0,0 +1,62 @@
+package com.example;
+
+import com.example.demo.hybrid.until.encryptions.CipherUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CipherUtilsTest {
+
+    @Test
+    void testCipherIsReusedOnSameThread() throws Exception {
+        SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+
+        Cipher first = CipherUtils.getCipher("AES", Cipher.ENCRYPT_MODE, key);
+        long hitsBefore = CipherUtils.getPoolHits();
+        Cipher second = CipherUtils.getCipher("AES", Cipher.DECRYPT_MODE, key);
+
+        assertSame(first, second);
+        assertEquals(hitsBefore + 1, CipherUtils.getPoolHits());
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void testVirtualThreadDoesNotUsePool() throws Exception {
+        SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        Cipher[] ciphers = new Cipher[2];
+        long hitsBefore = CipherUtils.getPoolHits();
+        long missesBefore = CipherUtils.getPoolMisses();
+
+        // Thread.startVirtualThread chỉ có từ Java 21, gọi qua reflection để vẫn biên dịch được trên Java 17
+        Runnable task = () -> {
+            ciphers[0] = CipherUtils.getCipher("AES", Cipher.ENCRYPT_MODE, key);
+            ciphers[1] = CipherUtils.getCipher("AES", Cipher.DECRYPT_MODE, key);
+        };
+        Thread thread = (Thread) Thread.class.getMethod("startVirtualThread", Runnable.class).invoke(null, task);
+        thread.join();
+
+        assertNotSame(ciphers[0], ciphers[1]);
+        assertEquals(hitsBefore, CipherUtils.getPoolHits());
+        assertEquals(missesBefore + 2, CipherUtils.getPoolMisses());
+    }
+
+    @Test
+    void testReinitializedCipherRoundTrip() throws Exception {
+        SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        byte[] data = "pooled cipher".getBytes();
+
+        byte[] encrypted = CipherUtils.doFinal(CipherUtils.getCipher("AES", Cipher.ENCRYPT_MODE, key), data);
+        byte[] decrypted = CipherUtils.doFinal(CipherUtils.getCipher("AES", Cipher.DECRYPT_MODE, key), encrypted);
+
+        assertArrayEquals(data, decrypted);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.until.constant.CacheConstant;
+import com.example.demo.hybrid.until.encryptions.DataKeyCache;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataKeyCacheTest {
+
+    private static final KeyPair SERVER_KEYS = newKeyPair();
+
+    private static final KeyPair OTHER_KEYS = newKeyPair();
+
+    @Test
+    void testUnwrapIsCachedAfterFirstDecryption() throws Exception {
+        SecretKey aesKey = KeyGenerator.getInstance("AES").generateKey();
+        byte[] wrapped = EncryptionUtil.encryptAESKeyWithRSA(aesKey, SERVER_KEYS.getPublic());
+
+        long missesBefore = DataKeyCache.stats().missCount();
+        assertArrayEquals(aesKey.getEncoded(), DataKeyCache.unwrap(wrapped, SERVER_KEYS.getPrivate()).getEncoded());
+        assertEquals(missesBefore + 1, DataKeyCache.stats().missCount());
+
+        // Lần đọc sau lấy từ cache, khóa riêng sai không được dùng tới
+        long hitsBefore = DataKeyCache.stats().hitCount();
+        assertArrayEquals(aesKey.getEncoded(), DataKeyCache.unwrap(wrapped, OTHER_KEYS.getPrivate()).getEncoded());
+        assertEquals(hitsBefore + 1, DataKeyCache.stats().hitCount());
+    }
+
+    @Test
+    void testPutServesKeyWithoutDecryption() throws Exception {
+        SecretKey aesKey = KeyGenerator.getInstance("AES").generateKey();
+        byte[] wrapped = EncryptionUtil.encryptAESKeyWithRSA(aesKey, SERVER_KEYS.getPublic());
+
+        DataKeyCache.put(wrapped, aesKey);
+
+        assertArrayEquals(aesKey.getEncoded(), DataKeyCache.unwrap(wrapped, OTHER_KEYS.getPrivate()).getEncoded());
+    }
+
+    @Test
+    void testClearForcesDecryption() throws Exception {
+        SecretKey aesKey = KeyGenerator.getInstance("AES").generateKey();
+        byte[] wrapped = EncryptionUtil.encryptAESKeyWithRSA(aesKey, SERVER_KEYS.getPublic());
+        DataKeyCache.put(wrapped, aesKey);
+
+        DataKeyCache.clear();
+
+        assertThrows(EncryptionException.class, () -> DataKeyCache.unwrap(wrapped, OTHER_KEYS.getPrivate()));
+        assertArrayEquals(aesKey.getEncoded(), DataKeyCache.unwrap(wrapped, SERVER_KEYS.getPrivate()).getEncoded());
+    }
+
+    @Test
+    void testCacheIsBoundedBySize() throws Exception {
+        SecretKey aesKey = KeyGenerator.getInstance("AES").generateKey();
+        long evictionsBefore = DataKeyCache.stats().evictionCount();
+
+        byte[] wrapped = new byte[32];
+        for (long i = 0; i < CacheConstant.DATA_KEY_CACHE_MAX_SIZE + 1_000; i++) {
+            ThreadLocalRandom.current().nextBytes(wrapped);
+            DataKeyCache.put(wrapped, aesKey);
+        }
+
+        // Caffeine loại bỏ bản ghi bất đồng bộ, chờ tối đa vài giây
+        for (int i = 0; i < 500 && DataKeyCache.size() > CacheConstant.DATA_KEY_CACHE_MAX_SIZE; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(DataKeyCache.size() <= CacheConstant.DATA_KEY_CACHE_MAX_SIZE);
+        assertTrue(DataKeyCache.stats().evictionCount() > evictionsBefore);
+    }
+
+    private static KeyPair newKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example;
+
+import com.example.demo.hybrid.until.keystore.FileKeyStorage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileKeyStorageTest {
+
+    private final FileKeyStorage storage = new FileKeyStorage();
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testWriteCreatesMissingDirectories() throws Exception {
+        Path directory = Files.createTempDirectory("keys");
+        String keyId = directory.resolve("nested/a_publicKey.pem").toString();
+
+        storage.write(keyId, bytes("public"));
+
+        assertTrue(storage.exists(keyId));
+        assertArrayEquals(bytes("public"), storage.read(keyId));
+    }
+
+    @Test
+    void testWriteReplacesKeyWithoutLeavingTemporaryFiles() throws Exception {
+        Path directory = Files.createTempDirectory("keys");
+        String keyId = directory.resolve("a_publicKey.pem").toString();
+
+        storage.write(keyId, bytes("old"));
+        storage.write(keyId, bytes("new"));
+
+        assertArrayEquals(bytes("new"), storage.read(keyId));
+        // Tệp tạm đã được đổi tên thành tệp khóa, thư mục chỉ còn một tệp
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
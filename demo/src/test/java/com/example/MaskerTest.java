@@ -0,0 +1,50 @@
+package com.example;
+
+import com.example.demo.hybrid.until.log.Masker;
+import com.example.demo.hybrid.until.log.MaskingPolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MaskerTest {
+
+    @Test
+    void testKeepLastFourCharacters() {
+        assertEquals("?????????9012", Masker.mask("0123456789012", MaskingPolicy.keepLast(4, '?')));
+    }
+
+    @Test
+    void testSeparatorsAreKeptAndNonAsciiIsMasked() {
+        MaskingPolicy policy = MaskingPolicy.of(2, 2, '*', true);
+
+        assertEquals("TX-****-**56", Masker.mask("TX-2024-0456", policy));
+        assertEquals("ab**ef", Masker.mask("abçdef", policy));
+        assertEquals("****", Masker.mask("abcd", policy));
+    }
+
+    @Test
+    void testFullMask() {
+        MaskingPolicy policy = MaskingPolicy.of(0, 0, '?', false);
+
+        assertEquals("????????????", Masker.mask("TX-2024-0456", policy));
+    }
+
+    @Test
+    void testShortAndNullValues() {
+        MaskingPolicy policy = MaskingPolicy.keepLast(4, '?');
+
+        assertEquals("???", Masker.mask("123", policy));
+        assertEquals("????", Masker.mask("1234", policy));
+        assertEquals("?2345", Masker.mask("12345", policy));
+        assertEquals("", Masker.mask("", policy));
+        assertNull(Masker.mask(null, policy));
+    }
+
+    @Test
+    void testLongValueDoesNotCorruptLaterResults() {
+        MaskingPolicy policy = MaskingPolicy.keepLast(1, '#');
+
+        assertEquals(5000, Masker.mask("x".repeat(5000), policy).length());
+        assertEquals("##c", Masker.mask("abc", policy));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example;
+
+import com.example.demo.hybrid.until.encryptions.PublicKeyCache;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PublicKeyCacheTest {
+
+    @Test
+    void testRepeatedKeyIsServedFromCache() throws Exception {
+        byte[] encoded = newPublicKey().getEncoded();
+
+        PublicKey first = PublicKeyCache.getOrParse(encoded);
+        long hitsBefore = PublicKeyCache.stats().hitCount();
+        PublicKey second = PublicKeyCache.getOrParse(encoded.clone());
+
+        assertSame(first, second);
+        assertEquals(hitsBefore + 1, PublicKeyCache.stats().hitCount());
+    }
+
+    @Test
+    void testDifferentKeysAreCachedSeparately() throws Exception {
+        PublicKey firstKey = newPublicKey();
+        PublicKey secondKey = newPublicKey();
+
+        assertEquals(firstKey, PublicKeyCache.getOrParse(firstKey.getEncoded()));
+        assertEquals(secondKey, PublicKeyCache.getOrParse(secondKey.getEncoded()));
+    }
+
+    @Test
+    void testInvalidKeyIsNotCached() {
+        long sizeBefore = PublicKeyCache.size();
+
+        assertThrows(InvalidKeySpecException.class, () -> PublicKeyCache.getOrParse(new byte[]{1, 2, 3}));
+        assertEquals(sizeBefore, PublicKeyCache.size());
+    }
+
+    private static PublicKey newPublicKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        return generator.generateKeyPair().getPublic();
+    }
+}
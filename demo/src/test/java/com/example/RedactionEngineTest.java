@@ -0,0 +1,39 @@
+package com.example;
+
+import com.example.demo.logging.RedactionEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedactionEngineTest {
+
+    private final RedactionEngine engine = new RedactionEngine(List.of("password", "account", "email"), 9, 4, '*');
+
+    @Test
+    void testKeywordValuesAreMasked() {
+        assertEquals("login email=***************** password: ****** done",
+                engine.redact("login email=alice@example.com password: s3cr3t done"));
+        assertEquals("{\"password\":\"******\"}", engine.redact("{\"password\":\"hunter\"}"));
+    }
+
+    @Test
+    void testKeywordsAreCaseInsensitiveAndNeedSeparator() {
+        assertEquals("PASSWORD=**** Account = ***", engine.redact("PASSWORD=abcd Account = xyz"));
+        assertEquals("accountId is required", engine.redact("accountId is required"));
+    }
+
+    @Test
+    void testLongDigitRunsAreMasked() {
+        assertEquals("transfer from ********9012 amount 500",
+                engine.redact("transfer from 123456789012 amount 500"));
+        assertEquals("id 12345678 kept", engine.redact("id 12345678 kept"));
+    }
+
+    @Test
+    void testCleanLineIsUnchanged() {
+        String line = "2024-01-01 10:00:00 INFO  UserServiceImpl - Tạo người dùng thành công";
+        assertEquals(line, engine.redact(line));
+    }
+}
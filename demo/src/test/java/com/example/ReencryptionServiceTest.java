@@ -0,0 +1,234 @@
+package com.example;
+
+import com.example.demo.hybrid.entity.ReencryptionCheckpointEntity;
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.repository.ReencryptionCheckpointRepository;
+import com.example.demo.hybrid.repository.TransactionHistoryRepository;
+import com.example.demo.hybrid.repository.UsersRepository;
+import com.example.demo.hybrid.service.iplm.ReencryptionServiceImpl;
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import com.example.demo.hybrid.until.encryptions.AesEnvelope;
+import com.example.demo.hybrid.until.encryptions.CryptoExecutor;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.encryptions.ServerKeyRing;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReencryptionServiceTest {
+
+    private static final KeyPair CURRENT_KEYS = newKeyPair();
+
+    private static final KeyPair PREVIOUS_KEYS = newKeyPair();
+
+    private final List<TransactionHistoryEntity> transactions = new ArrayList<>();
+
+    private final Map<String, ReencryptionCheckpointEntity> checkpoints = new HashMap<>();
+
+    private ReencryptionServiceImpl newService(int chunkSize) {
+        ServerKeyRing keyRing = new ServerKeyRing(CURRENT_KEYS, PREVIOUS_KEYS.getPrivate(), new CryptoExecutor(false, 0));
+        return new ReencryptionServiceImpl(transactionRepository(), usersRepository(), checkpointRepository(),
+                new TransactionTemplate(new NoOpTransactionManager()), keyRing, new EmptyKeyStorage(),
+                chunkSize, 2, 0);
+    }
+
+    @Test
+    void testRewrapsPreviousKeyAndMigratesLegacyCipher() throws Exception {
+        SecretKey dataKey = KeyGenerator.getInstance("AES").generateKey();
+        transactions.add(TransactionHistoryEntity.builder()
+                .id(1L)
+                .account(legacyEncrypt("0011223344", dataKey))
+                .encryptedAESKey(EncryptionUtil.encryptAESKeyWithRSA(dataKey, PREVIOUS_KEYS.getPublic()))
+                .build());
+
+        assertEquals(1, newService(10).reencryptTransactions(false));
+
+        TransactionHistoryEntity row = transactions.get(0);
+        SecretKey rewrapped = EncryptionUtil.decryptAESKeyWithRSA(row.getEncryptedAESKey(), CURRENT_KEYS.getPrivate());
+        assertArrayEquals(dataKey.getEncoded(), rewrapped.getEncoded());
+        assertTrue(AesEnvelope.hasHeader(row.getAccount()));
+        assertEquals(AesEnvelope.VERSION_1, (byte) row.getCipherVersion());
+        assertEquals("0011223344", new String(AesEnvelope.open(row.getAccount(), rewrapped), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testMigratesLegacyCipherStartingWithMagicByte() throws Exception {
+        SecretKey dataKey = KeyGenerator.getInstance("AES").generateKey();
+        String account;
+        byte[] legacy;
+        int attempt = 0;
+        do {
+            account = attempt++ + "-0011223344556677";
+            legacy = legacyEncrypt(account, dataKey);
+        } while (legacy[0] != AesEnvelope.MAGIC);
+        transactions.add(TransactionHistoryEntity.builder()
+                .id(1L)
+                .account(legacy)
+                .encryptedAESKey(EncryptionUtil.encryptAESKeyWithRSA(dataKey, CURRENT_KEYS.getPublic()))
+                .build());
+
+        assertEquals(1, newService(10).reencryptTransactions(false));
+
+        TransactionHistoryEntity row = transactions.get(0);
+        assertEquals(AesEnvelope.VERSION_1, (byte) row.getCipherVersion());
+        assertEquals(account, new String(AesEnvelope.open(row.getAccount(), dataKey), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCheckpointResumesAfterLastChunk() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            transactions.add(currentRow(id));
+        }
+
+        assertEquals(5, newService(2).reencryptTransactions(false));
+        ReencryptionCheckpointEntity checkpoint = checkpoints.get(CommonConstant.REENCRYPTION_JOB_TRANSACTIONS);
+        assertEquals(5L, (long) checkpoint.getLastId());
+        assertEquals(5L, (long) checkpoint.getProcessedRows());
+
+        transactions.add(currentRow(6));
+        assertEquals(1, newService(2).reencryptTransactions(false));
+        assertEquals(6L, (long) checkpoints.get(CommonConstant.REENCRYPTION_JOB_TRANSACTIONS).getLastId());
+
+        assertEquals(6, newService(2).reencryptTransactions(true));
+    }
+
+    @Test
+    void testFailingRowsAreSkipped() throws Exception {
+        transactions.add(currentRow(1));
+        // Khóa bọc sai và bản ghi thiếu dữ liệu đều không được làm dừng job
+        transactions.add(TransactionHistoryEntity.builder()
+                .id(2L)
+                .account(new byte[32])
+                .encryptedAESKey(new byte[256])
+                .build());
+        transactions.add(TransactionHistoryEntity.builder().id(3L).build());
+        transactions.add(currentRow(4));
+
+        assertEquals(4, newService(10).reencryptTransactions(false));
+        assertEquals(4L, (long) checkpoints.get(CommonConstant.REENCRYPTION_JOB_TRANSACTIONS).getLastId());
+        assertArrayEquals(new byte[256], transactions.get(1).getEncryptedAESKey());
+    }
+
+    private static TransactionHistoryEntity currentRow(long id) throws Exception {
+        SecretKey dataKey = KeyGenerator.getInstance("AES").generateKey();
+        return TransactionHistoryEntity.builder()
+                .id(id)
+                .account(AesEnvelope.seal("0011223344".getBytes(StandardCharsets.UTF_8), dataKey))
+                .encryptedAESKey(EncryptionUtil.encryptAESKeyWithRSA(dataKey, CURRENT_KEYS.getPublic()))
+                .cipherVersion(AesEnvelope.VERSION_1)
+                .build();
+    }
+
+    private static byte[] legacyEncrypt(String value, SecretKey key) throws Exception {
+        Cipher ecb = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        ecb.init(Cipher.ENCRYPT_MODE, key);
+        return ecb.doFinal(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private TransactionHistoryRepository transactionRepository() {
+        return (TransactionHistoryRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{TransactionHistoryRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findByIdGreaterThanOrderByIdAsc")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    long afterId = (Long) args[0];
+                    return transactions.stream()
+                            .filter(row -> row.getId() > afterId)
+                            .limit(((Pageable) args[1]).getPageSize())
+                            .toList();
+                });
+    }
+
+    private UsersRepository usersRepository() {
+        return (UsersRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UsersRepository.class}, (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private ReencryptionCheckpointRepository checkpointRepository() {
+        return (ReencryptionCheckpointRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ReencryptionCheckpointRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            return Optional.ofNullable(checkpoints.get((String) args[0]));
+                        case "save":
+                            ReencryptionCheckpointEntity checkpoint = (ReencryptionCheckpointEntity) args[0];
+                            checkpoints.put(checkpoint.getJobName(), checkpoint);
+                            return checkpoint;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static KeyPair newKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class EmptyKeyStorage implements KeyStorage {
+
+        @Override
+        public boolean exists(String keyId) {
+            return false;
+        }
+
+        @Override
+        public byte[] read(String keyId) {
+            throw new UnsupportedOperationException(keyId);
+        }
+
+        @Override
+        public Instant lastModified(String keyId) {
+            throw new UnsupportedOperationException(keyId);
+        }
+
+        @Override
+        public void write(String keyId, byte[] encodedKey) {
+            throw new UnsupportedOperationException(keyId);
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
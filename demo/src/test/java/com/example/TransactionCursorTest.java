@@ -0,0 +1,30 @@
+package com.example;
+
+import com.example.demo.hybrid.exception.InvalidInputException;
+import com.example.demo.hybrid.until.helper.TransactionCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        TransactionCursor cursor = new TransactionCursor(LocalDate.of(2024, 3, 15), 123456789L);
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="));
+        assertEquals(cursor, TransactionCursor.decode(token));
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        assertThrows(InvalidInputException.class, () -> TransactionCursor.decode("not a cursor!"));
+        assertThrows(InvalidInputException.class, () -> TransactionCursor.decode("AAAA"));
+        assertThrows(InvalidInputException.class,
+                () -> TransactionCursor.decode(new TransactionCursor(LocalDate.of(2024, 1, 1), 0L).encode()));
+    }
+}
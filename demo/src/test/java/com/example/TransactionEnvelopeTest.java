@@ -0,0 +1,96 @@
+package com.example;
+
+import com.example.demo.hybrid.exception.EncryptionException;
+import com.example.demo.hybrid.exception.InvalidInputException;
+import com.example.demo.hybrid.until.encryptions.DataKeyCache;
+import com.example.demo.hybrid.until.encryptions.EncryptionUtil;
+import com.example.demo.hybrid.until.helper.EncryptionHelper;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionEnvelopeTest {
+
+    private static final String PAYLOAD = "{\"transactionId\":\"TX-1\",\"sourceAccount\":\"0011223344\","
+            + "\"destinationAccount\":\"5566778899\",\"amount\":150000,\"time\":\"2024-07-01\"}";
+
+    private static final KeyPair SERVER_KEYS = newKeyPair();
+
+    private static SecretKey newSessionKey() throws Exception {
+        KeyGenerator keyGen = KeyGenerator.getInstance("AES");
+        keyGen.init(256);
+        return keyGen.generateKey();
+    }
+
+    @Test
+    void testOpenEnvelope() throws Exception {
+        SecretKey sessionKey = newSessionKey();
+        byte[] encryptedKey = EncryptionUtil.encryptAESKeyWithRSA(sessionKey, SERVER_KEYS.getPublic());
+        byte[] payload = EncryptionUtil.encryptDataWithAES(PAYLOAD, sessionKey);
+
+        byte[] json = EncryptionHelper.openEnvelope(encryptedKey, payload, SERVER_KEYS.getPrivate());
+
+        assertEquals(PAYLOAD, new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSessionKeyIsNotCached() throws Exception {
+        SecretKey sessionKey = newSessionKey();
+        byte[] encryptedKey = EncryptionUtil.encryptAESKeyWithRSA(sessionKey, SERVER_KEYS.getPublic());
+        byte[] payload = EncryptionUtil.encryptDataWithAES(PAYLOAD, sessionKey);
+
+        EncryptionHelper.openEnvelope(encryptedKey, payload, SERVER_KEYS.getPrivate());
+
+        assertNull(DataKeyCache.getIfPresent(encryptedKey));
+    }
+
+    @Test
+    void testOpenEnvelopeRejectsLegacyPayload() throws Exception {
+        SecretKey sessionKey = newSessionKey();
+        byte[] encryptedKey = EncryptionUtil.encryptAESKeyWithRSA(sessionKey, SERVER_KEYS.getPublic());
+        Cipher ecb = Cipher.getInstance("AES");
+        ecb.init(Cipher.ENCRYPT_MODE, sessionKey);
+        byte[] legacy = ecb.doFinal(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidInputException.class,
+                () -> EncryptionHelper.openEnvelope(encryptedKey, legacy, SERVER_KEYS.getPrivate()));
+    }
+
+    @Test
+    void testOpenEnvelopeWithTamperedPayload() throws Exception {
+        SecretKey sessionKey = newSessionKey();
+        byte[] encryptedKey = EncryptionUtil.encryptAESKeyWithRSA(sessionKey, SERVER_KEYS.getPublic());
+        byte[] payload = EncryptionUtil.encryptDataWithAES(PAYLOAD, sessionKey);
+        payload[payload.length - 1] ^= 0x01;
+
+        assertThrows(EncryptionException.class,
+                () -> EncryptionHelper.openEnvelope(encryptedKey, payload, SERVER_KEYS.getPrivate()));
+    }
+
+    @Test
+    void testOpenEnvelopeWithKeyForAnotherServer() throws Exception {
+        SecretKey sessionKey = newSessionKey();
+        byte[] encryptedKey = EncryptionUtil.encryptAESKeyWithRSA(sessionKey, newKeyPair().getPublic());
+        byte[] payload = EncryptionUtil.encryptDataWithAES(PAYLOAD, sessionKey);
+
+        assertThrows(EncryptionException.class,
+                () -> EncryptionHelper.openEnvelope(encryptedKey, payload, SERVER_KEYS.getPrivate()));
+    }
+
+    private static KeyPair newKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example;
+
+import com.example.demo.hybrid.entity.TransactionHistoryEntity;
+import com.example.demo.hybrid.repository.TransactionHistoryBatchRepository;
+import com.example.demo.hybrid.repository.TransactionWriteBehindQueue;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionWriteBehindQueueTest {
+
+    private final RecordingBatchRepository repository = new RecordingBatchRepository();
+
+    private TransactionWriteBehindQueue newQueue(int maxBatchSize, long flushWindowMs) {
+        TransactionWriteBehindQueue queue = new TransactionWriteBehindQueue(repository,
+                new TransactionTemplate(new NoOpTransactionManager()), 1000, maxBatchSize, flushWindowMs, 100);
+        queue.start();
+        return queue;
+    }
+
+    private static List<TransactionHistoryEntity> records(String transactionId) {
+        return List.of(TransactionHistoryEntity.builder().transactionId(transactionId).build(),
+                TransactionHistoryEntity.builder().transactionId(transactionId).build());
+    }
+
+    @Test
+    void testCommitsInSubmissionOrder() throws Exception {
+        TransactionWriteBehindQueue queue = newQueue(8, 5);
+        List<CompletableFuture<Long>> acks = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            acks.add(queue.submit(records("TX-" + i)));
+            expected.add("TX-" + i);
+            expected.add("TX-" + i);
+        }
+
+        long previous = 0;
+        for (CompletableFuture<Long> ack : acks) {
+            long id = ack.get(5, TimeUnit.SECONDS);
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(expected, repository.inserted());
+        queue.stop();
+    }
+
+    @Test
+    void testFailedTransactionIsRetriedAlone() throws Exception {
+        TransactionWriteBehindQueue queue = newQueue(100, 50);
+
+        CompletableFuture<Long> first = queue.submit(records("TX-1"));
+        CompletableFuture<Long> failing = queue.submit(records(RecordingBatchRepository.FAIL));
+        CompletableFuture<Long> last = queue.submit(records("TX-2"));
+
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(last.get(5, TimeUnit.SECONDS));
+        CompletionException e = assertThrows(CompletionException.class, failing::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(List.of("TX-1", "TX-1", "TX-2", "TX-2"), repository.inserted());
+        queue.stop();
+    }
+
+    @Test
+    void testErrorDoesNotStopWriter() throws Exception {
+        TransactionWriteBehindQueue queue = newQueue(100, 5);
+
+        CompletableFuture<Long> failing = queue.submit(records(RecordingBatchRepository.ERROR));
+        CompletionException e = assertThrows(CompletionException.class, failing::join);
+        assertInstanceOf(AssertionError.class, e.getCause());
+
+        assertNotNull(queue.submit(records("TX-1")).get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("TX-1", "TX-1"), repository.inserted());
+        queue.stop();
+    }
+
+    @Test
+    void testStopCommitsQueuedTransactions() throws Exception {
+        TransactionWriteBehindQueue queue = newQueue(4, 50);
+        List<CompletableFuture<Long>> acks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            acks.add(queue.submit(records("TX-" + i)));
+        }
+
+        queue.stop();
+
+        for (CompletableFuture<Long> ack : acks) {
+            assertTrue(ack.isDone());
+            assertFalse(ack.isCompletedExceptionally());
+        }
+        assertEquals(40, repository.inserted().size());
+        assertEquals(0, queue.depth());
+    }
+
+    @Test
+    void testSubmitAfterStopIsRejected() throws Exception {
+        TransactionWriteBehindQueue queue = newQueue(4, 5);
+        queue.stop();
+
+        assertThrows(IllegalStateException.class, () -> queue.submit(records("TX-1")));
+    }
+
+    /**
+     * Records inserted transaction ids and fails batches that contain a marker transaction.
+     */
+    private static class RecordingBatchRepository extends TransactionHistoryBatchRepository {
+
+        static final String FAIL = "FAIL";
+
+        static final String ERROR = "ERROR";
+
+        private final List<String> inserted = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public int insertAll(List<TransactionHistoryEntity> records) {
+            for (TransactionHistoryEntity record : records) {
+                if (FAIL.equals(record.getTransactionId())) {
+                    throw new IllegalStateException("Duplicate transaction");
+                }
+                if (ERROR.equals(record.getTransactionId())) {
+                    throw new AssertionError("Writer failure");
+                }
+            }
+            records.forEach(record -> inserted.add(record.getTransactionId()));
+            return records.size();
+        }
+
+        List<String> inserted() {
+            synchronized (inserted) {
+                return new ArrayList<>(inserted);
+            }
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example;
+
+import com.example.demo.hybrid.dto.UserBulkErrorDTO;
+import com.example.demo.hybrid.dto.UserBulkResultDTO;
+import com.example.demo.hybrid.dto.UserDTO;
+import com.example.demo.hybrid.entity.UsersEntity;
+import com.example.demo.hybrid.repository.UsersBatchRepository;
+import com.example.demo.hybrid.repository.UsersRepository;
+import com.example.demo.hybrid.service.iplm.UserServiceImpl;
+import com.example.demo.hybrid.until.constant.CommonConstant;
+import com.example.demo.hybrid.until.encryptions.CryptoExecutor;
+import com.example.demo.hybrid.until.encryptions.KeyPairPool;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserBulkImportTest {
+
+    private final InMemoryKeyStorage keyStorage = new InMemoryKeyStorage();
+
+    private final RecordingBatchRepository batchRepository = new RecordingBatchRepository();
+
+    private final UserServiceImpl userService = new UserServiceImpl(usersRepository(), new GeneratingKeyPairPool(),
+            new CryptoExecutor(false, 0), keyStorage, entityManagerFactory(),
+            new TransactionTemplate(new NoOpTransactionManager()), batchRepository, 2);
+
+    private static UserDTO user(String userName, String email, String password) {
+        return UserDTO.builder().userName(userName).email(email).password(password).build();
+    }
+
+    @Test
+    void testSavesValidUsersAndReportsInvalidOnes() {
+        List<UserDTO> users = new ArrayList<>();
+        users.add(user("a", "a@bulk.test", "secret"));
+        users.add(user("b", "b@bulk.test", ""));
+        users.add(user("c", "c@bulk.test", "secret"));
+        users.add(user("d", "a@bulk.test", "secret"));
+
+        UserBulkResultDTO result = userService.saveUsers(users);
+
+        assertEquals(4, result.getUsers());
+        assertEquals(2, result.getSavedUsers());
+        assertEquals(List.of(1, 3), result.getErrors().stream().map(UserBulkErrorDTO::getIndex).toList());
+        assertEquals(List.of("a", "c"), batchRepository.inserted());
+        // Cặp khóa của cả chunk được ghi trong một lần
+        assertEquals(1, keyStorage.groupWrites.get());
+        assertEquals(4, keyStorage.keys.size());
+        assertEquals(2, batchRepository.fingerprints().size());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedRowByRow() {
+        List<UserDTO> users = List.of(
+                user("e", "e@bulk.test", "secret"),
+                user(RecordingBatchRepository.FAIL, "f@bulk.test", "secret"),
+                user("g", "g@bulk.test", "secret"));
+
+        UserBulkResultDTO result = userService.saveUsers(users);
+
+        assertEquals(2, result.getSavedUsers());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Cannot save user"));
+        assertEquals(List.of("e", "g"), batchRepository.inserted());
+    }
+
+    @Test
+    void testOversizedValueIsRejectedBeforeInsert() {
+        UserBulkResultDTO result = userService.saveUsers(List.of(
+                user("k", "k@bulk.test", "secret"),
+                user("l", "l@bulk.test", "x".repeat(CommonConstant.VARBINARY_512_LENGTH))));
+
+        assertEquals(1, result.getSavedUsers());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Password is too long"));
+        assertEquals(List.of("k"), batchRepository.inserted());
+    }
+
+    @Test
+    void testRetriedRequestDoesNotDuplicateUsers() {
+        assertEquals(2, userService.saveUsers(List.of(
+                user("h", "h@bulk.test", "secret"),
+                user("i", "i@bulk.test", "secret"))).getSavedUsers());
+
+        UserBulkResultDTO retried = userService.saveUsers(List.of(
+                user("h", "h@bulk.test", "secret"),
+                user("i", "i@bulk.test", "secret"),
+                user("j", "j@bulk.test", "secret")));
+
+        assertEquals(1, retried.getSavedUsers());
+        assertEquals(List.of(0, 1), retried.getErrors().stream().map(UserBulkErrorDTO::getIndex).toList());
+        assertEquals("User already exists", retried.getErrors().get(0).getMessage());
+        assertEquals(List.of("h", "i", "j"), batchRepository.inserted());
+    }
+
+    private UsersRepository usersRepository() {
+        return (UsersRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UsersRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findPublicKeyFingerprintsIn")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Set<ByteBuffer> saved = batchRepository.fingerprints();
+                    @SuppressWarnings("unchecked")
+                    Collection<byte[]> fingerprints = (Collection<byte[]>) args[0];
+                    return fingerprints.stream()
+                            .filter(fingerprint -> saved.contains(ByteBuffer.wrap(fingerprint)))
+                            .collect(Collectors.toList());
+                });
+    }
+
+    private EntityManagerFactory entityManagerFactory() {
+        return (EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EntityManagerFactory.class}, (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Records inserted user names and fails batches that contain a marker user.
+     */
+    private static class RecordingBatchRepository extends UsersBatchRepository {
+
+        static final String FAIL = "FAIL";
+
+        private final List<UsersEntity> inserted = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public int insertAll(List<UsersEntity> users) {
+            for (UsersEntity user : users) {
+                if (FAIL.equals(user.getUserName())) {
+                    throw new DataIntegrityViolationException("Data too long for column 'user_name'");
+                }
+            }
+            inserted.addAll(users);
+            return users.size();
+        }
+
+        List<String> inserted() {
+            synchronized (inserted) {
+                return inserted.stream().map(UsersEntity::getUserName).sorted().collect(Collectors.toList());
+            }
+        }
+
+        Set<ByteBuffer> fingerprints() {
+            synchronized (inserted) {
+                return inserted.stream()
+                        .map(user -> ByteBuffer.wrap(user.getPublicKeyFingerprint()))
+                        .collect(Collectors.toSet());
+            }
+        }
+    }
+
+    private static class InMemoryKeyStorage implements KeyStorage {
+
+        private final Map<String, byte[]> keys = new ConcurrentHashMap<>();
+
+        private final AtomicInteger groupWrites = new AtomicInteger();
+
+        @Override
+        public boolean exists(String keyId) {
+            return keys.containsKey(keyId);
+        }
+
+        @Override
+        public byte[] read(String keyId) throws NoSuchFileException {
+            byte[] encodedKey = keys.get(keyId);
+            if (encodedKey == null) {
+                throw new NoSuchFileException(keyId);
+            }
+            return encodedKey;
+        }
+
+        @Override
+        public Instant lastModified(String keyId) {
+            throw new UnsupportedOperationException(keyId);
+        }
+
+        @Override
+        public void write(String keyId, byte[] encodedKey) {
+            keys.put(keyId, encodedKey);
+        }
+
+        @Override
+        public void writeAll(Map<String, byte[]> encodedKeys) {
+            groupWrites.incrementAndGet();
+            keys.putAll(encodedKeys);
+        }
+    }
+
+    /**
+     * Generates every pair on the calling thread, with short keys to keep the test fast.
+     */
+    private static class GeneratingKeyPairPool extends KeyPairPool {
+
+        GeneratingKeyPairPool() {
+            super(1);
+        }
+
+        @Override
+        public KeyPair take() {
+            try {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(1024);
+                return generator.generateKeyPair();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example;
+
+import com.example.demo.hybrid.until.encryptions.KeyPairGeneratorUtil;
+import com.example.demo.hybrid.until.encryptions.UserKeyCache;
+import com.example.demo.hybrid.until.keystore.KeyStorage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.NoSuchFileException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserKeyCacheTest {
+
+    @Test
+    void testKeysAreReadFromStorageOnce() throws Exception {
+        CountingKeyStorage storage = new CountingKeyStorage();
+        KeyPairGeneratorUtil.saveKeyPair(storage, newKeyPair(), "keys/once_publicKey.pem", "keys/once_privateKey.pem");
+
+        UserKeyCache.getPublicKey(storage, "keys/once_publicKey.pem");
+        UserKeyCache.getPublicKey(storage, "keys/once_publicKey.pem");
+        UserKeyCache.getPrivateKey(storage, "keys/once_privateKey.pem");
+        UserKeyCache.getPrivateKey(storage, "keys/once_privateKey.pem");
+
+        assertEquals(2, storage.reads.get());
+    }
+
+    @Test
+    void testInvalidateForcesReload() throws Exception {
+        CountingKeyStorage storage = new CountingKeyStorage();
+        KeyPairGeneratorUtil.saveKeyPair(storage, newKeyPair(), "keys/reload_publicKey.pem", "keys/reload_privateKey.pem");
+        UserKeyCache.getPublicKey(storage, "keys/reload_publicKey.pem");
+
+        UserKeyCache.invalidate("keys/reload_publicKey.pem");
+        UserKeyCache.getPublicKey(storage, "keys/reload_publicKey.pem");
+
+        assertEquals(2, storage.reads.get());
+    }
+
+    @Test
+    void testRewrittenKeyPairReplacesCachedKeys() throws Exception {
+        CountingKeyStorage storage = new CountingKeyStorage();
+        KeyPair oldPair = newKeyPair();
+        KeyPair newPair = newKeyPair();
+
+        KeyPairGeneratorUtil.saveKeyPair(storage, oldPair, "keys/rotate_publicKey.pem", "keys/rotate_privateKey.pem");
+        assertEquals(oldPair.getPublic(), UserKeyCache.getPublicKey(storage, "keys/rotate_publicKey.pem"));
+        assertEquals(oldPair.getPrivate(), UserKeyCache.getPrivateKey(storage, "keys/rotate_privateKey.pem"));
+
+        KeyPairGeneratorUtil.saveKeyPair(storage, newPair, "keys/rotate_publicKey.pem", "keys/rotate_privateKey.pem");
+        assertEquals(newPair.getPublic(), UserKeyCache.getPublicKey(storage, "keys/rotate_publicKey.pem"));
+        assertEquals(newPair.getPrivate(), UserKeyCache.getPrivateKey(storage, "keys/rotate_privateKey.pem"));
+    }
+
+    @Test
+    void testMissingKeyIsNotCached() {
+        CountingKeyStorage storage = new CountingKeyStorage();
+
+        assertThrows(NoSuchFileException.class, () -> UserKeyCache.getPublicKey(storage, "keys/missing_publicKey.pem"));
+        assertThrows(NoSuchFileException.class, () -> UserKeyCache.getPublicKey(storage, "keys/missing_publicKey.pem"));
+        assertEquals(2, storage.reads.get());
+    }
+
+    private static KeyPair newKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        return generator.generateKeyPair();
+    }
+
+    private static final class CountingKeyStorage implements KeyStorage {
+
+        private final Map<String, byte[]> keys = new ConcurrentHashMap<>();
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public boolean exists(String keyId) {
+            return keys.containsKey(keyId);
+        }
+
+        @Override
+        public byte[] read(String keyId) throws NoSuchFileException {
+            reads.incrementAndGet();
+            byte[] key = keys.get(keyId);
+            if (key == null) {
+                throw new NoSuchFileException(keyId);
+            }
+            return key.clone();
+        }
+
+        @Override
+        public Instant lastModified(String keyId) {
+            throw new UnsupportedOperationException(keyId);
+        }
+
+        @Override
+        public void write(String keyId, byte[] encodedKey) {
+            keys.put(keyId, encodedKey.clone());
+        }
+    }
+}
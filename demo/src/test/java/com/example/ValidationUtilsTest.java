@@ -0,0 +1,50 @@
+package com.example;
+
+import com.example.demo.hybrid.exception.InvalidInputException;
+import com.example.demo.hybrid.until.validate.DecodedCiphertext;
+import com.example.demo.hybrid.until.validate.ValidationUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidationUtilsTest {
+
+    @Test
+    void testDecodeCiphertextReturnsDecodedBytes() {
+        String encoded = Base64.getEncoder().encodeToString("ciphertext".getBytes(StandardCharsets.UTF_8));
+
+        DecodedCiphertext decoded = ValidationUtils.decodeCiphertext(encoded);
+
+        assertArrayEquals("ciphertext".getBytes(StandardCharsets.UTF_8), decoded.bytes());
+    }
+
+    @Test
+    void testInvalidBase64IsRejectedWithoutStackTrace() {
+        InvalidInputException e = assertThrows(InvalidInputException.class,
+                () -> ValidationUtils.decodeKey("not base64!"));
+
+        assertEquals(0, e.getStackTrace().length);
+    }
+
+    @Test
+    void testInvalidInputIsStillAnIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> ValidationUtils.validateBase64String(" "));
+        assertThrows(IllegalArgumentException.class, () -> ValidationUtils.validateString(null));
+    }
+
+    @Test
+    void testServerSideChecksKeepStackTrace() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ValidationUtils.validateRSAKey(null));
+
+        assertFalse(e instanceof InvalidInputException);
+        assertTrue(e.getStackTrace().length > 0);
+        assertFalse(assertThrows(IllegalArgumentException.class,
+                () -> ValidationUtils.validateFilePath(" ")) instanceof InvalidInputException);
+        assertFalse(assertThrows(IllegalArgumentException.class,
+                () -> ValidationUtils.validateObject(null)) instanceof InvalidInputException);
+    }
+}